@@ -0,0 +1,67 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Description: compares two JMH result files written with "-rf csv", printing each benchmark's score before and
+ * after and the change, so a regression shows up as a positive change (scores are time per operation).
+ *
+ *      java -cp target/benchmarks.jar bench.Compare before.csv after.csv
+ */
+
+public class Compare {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.out.println("Please specify two JMH csv result files: [before] [after]");
+            return;
+        }
+        Map<String, double[]> before = read(args[0]);
+        Map<String, double[]> after = read(args[1]);
+
+        System.out.println(String.format("%-40s %12s %12s %9s", "Benchmark", "Before", "After", "Change"));
+        for (Map.Entry<String, double[]> entry : after.entrySet()) {
+            double[] old = before.get(entry.getKey());
+            double score = entry.getValue()[0];
+            if (old == null) {
+                System.out.println(String.format("%-40s %12s %12.3f %9s", entry.getKey(), "-", score, "new"));
+                continue;
+            }
+            // a change inside both error margins is marked as noise with "~"
+            double change = (score - old[0]) / old[0] * 100;
+            boolean noise = Math.abs(score - old[0]) <= entry.getValue()[1] + old[1];
+            System.out.println(String.format("%-40s %12.3f %12.3f %+8.1f%%%s", entry.getKey(), old[0], score, change,
+                    noise ? " ~" : ""));
+        }
+    }
+
+    /**
+     * Reads a JMH csv result file
+     *
+     * @param path              String, path of result file
+     * @return                  Map<String, double[]>, {score, score error} by benchmark name and mode, in file order
+     */
+    private static Map<String, double[]> read(String path) throws Exception {
+        // "Benchmark","Mode","Threads","Samples","Score","Score Error (99.9%)","Unit",...
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(",");
+            if (fields.length < 7) {
+                continue;
+            }
+            String name = unquote(fields[0]) + " " + unquote(fields[1]);
+            double error = unquote(fields[5]).equals("NaN") ? 0 : Double.parseDouble(unquote(fields[5]));
+            scores.put(name, new double[]{Double.parseDouble(unquote(fields[4])), error});
+        }
+        return scores;
+    }
+
+    private static String unquote(String field) {
+        return field.startsWith("\"") && field.endsWith("\"") ? field.substring(1, field.length() - 1) : field;
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import src.GameReader;
+import src.GameSource;
+import src.MoveBuffer;
+import src.PlayGame;
+
+/*
+ * Description: the fixed positions and games every benchmark runs over, read from the corpus directory (the
+ * "corpus" system property, corpus/ under the working directory by default):
+ *
+ *      positions.sfen      one Sfen position per line, taken from random games every few moves
+ *      *.in                game files in the file mode format, played from the starting board
+ */
+
+public class Corpus {
+
+    private static final String DIR = System.getProperty("corpus", "corpus");
+
+    /**
+     * Reads the corpus positions
+     *
+     * @return                  List<PlayGame>, a new game at each position
+     */
+    public static List<PlayGame> positions() throws IOException {
+        List<PlayGame> games = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(DIR, "positions.sfen"))) {
+            if (!line.isBlank()) {
+                games.add(PlayGame.fromSfen(line.trim()));
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Finds the corpus game files
+     *
+     * @return                  List<String>, paths of game files sorted by name
+     */
+    public static List<String> gameFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(DIR))) {
+            return files.filter(f -> f.toString().endsWith(".in")).sorted().map(Path::toString)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads the starting game and packed moves of every game in the corpus game files
+     *
+     * @param moves             List<MoveBuffer>, filled with each game's moves, in the same order as the games
+     * @return                  List<PlayGame>, each game before its first move
+     */
+    public static List<PlayGame> games(List<MoveBuffer> moves) throws IOException {
+        List<PlayGame> games = new ArrayList<>();
+        for (String path : gameFiles()) {
+            try (GameSource reader = new GameReader(path)) {
+                for (PlayGame game = reader.nextGame(); game != null; game = reader.nextGame()) {
+                    MoveBuffer gameMoves = new MoveBuffer();
+                    for (int move = reader.nextMove(); move != GameSource.END; move = reader.nextMove()) {
+                        gameMoves.add(move);
+                    }
+                    games.add(game);
+                    moves.add(gameMoves);
+                }
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,123 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import src.MoveBuffer;
+import src.Piece;
+import src.PlayGame;
+
+/*
+ * Description: benchmarks of move validation and check detection over the corpus, each operation covers every
+ * corpus position (or game) once so scores compare across changes as long as the corpus stays the same.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBench {
+
+    private List<PlayGame> positions;
+    private List<PlayGame> games;
+    private List<MoveBuffer> gameMoves;
+
+    @Setup
+    public void setup() throws Exception {
+        positions = Corpus.positions();
+        gameMoves = new ArrayList<>();
+        games = Corpus.games(gameMoves);
+    }
+
+    /**
+     * Copies every corpus game's starting position, the part of interpretMove's score that is not interpretMove
+     */
+    @Benchmark
+    public void copyGames(Blackhole bh) {
+        for (PlayGame game : games) {
+            bh.consume(new PlayGame(game));
+        }
+    }
+
+    /**
+     * Plays every corpus game from a copy of its starting position like file mode: validate, move, look for check
+     */
+    @Benchmark
+    public void interpretMove(Blackhole bh) {
+        for (int i = 0; i < games.size(); i++) {
+            PlayGame game = new PlayGame(games.get(i));
+            MoveBuffer moves = gameMoves.get(i);
+            for (int j = 0; j < moves.size() && game.getGameState() <= 0; j++) {
+                game.interpretMove(moves.get(j));
+                game.addNumMoves();
+                game.switchCurrPlayer();
+            }
+            bh.consume(game.getGameState());
+        }
+    }
+
+    /**
+     * Checks every from/to square pair of every corpus position, isMoving = false since a real move updates the
+     * piece's moves
+     */
+    @Benchmark
+    public int ifLegalMove() {
+        int legal = 0;
+        for (PlayGame game : positions) {
+            for (int from = 0; from < 25; from++) {
+                for (int to = 0; to < 25; to++) {
+                    if (game.ifLegalMove(from / 5, from % 5, to / 5, to % 5, false)) {
+                        legal++;
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Checks a drop of every kind but the king on every square of every corpus position
+     */
+    @Benchmark
+    public int ifLegalDrop() {
+        int legal = 0;
+        for (PlayGame game : positions) {
+            for (int kind = Piece.ROOK; kind < Piece.NUM_KINDS; kind++) {
+                for (int sq = 0; sq < 25; sq++) {
+                    if (game.ifLegalDrop(kind, sq / 5, sq % 5)) {
+                        legal++;
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Finds every legal move (what a player in check is offered) of every corpus position
+     */
+    @Benchmark
+    public int findAllMoves() {
+        int moves = 0;
+        for (PlayGame game : positions) {
+            game.findAllMoves();
+            moves += game.getCurrPlayer().getAllMoves().size();
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import src.PlayGame;
+import src.Utils;
+
+/*
+ * Description: benchmarks of rendering and reading positions over the corpus, each operation covers every corpus
+ * position (or game file) once.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TextBench {
+
+    private List<PlayGame> positions;
+    private List<String> gameFiles;
+
+    @Setup
+    public void setup() throws Exception {
+        positions = Corpus.positions();
+        gameFiles = Corpus.gameFiles();
+    }
+
+    @Benchmark
+    public void boardToString(Blackhole bh) {
+        for (PlayGame game : positions) {
+            bh.consume(game.getBoard().toString());
+        }
+    }
+
+    @Benchmark
+    public void gameStateToString(Blackhole bh) {
+        for (PlayGame game : positions) {
+            bh.consume(game.gameStateToString());
+        }
+    }
+
+    /**
+     * Reads every corpus game file into a test case, the file is in the page cache after the first read
+     */
+    @Benchmark
+    public void parseTestCase(Blackhole bh) throws Exception {
+        for (String path : gameFiles) {
+            bh.consume(Utils.parseTestCase(path));
+        }
+    }
+}
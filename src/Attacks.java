@@ -0,0 +1,154 @@
+package src;
+
+/*
+ * Description: precomputed attack tables for every piece kind on the 5x5 board. Squares are indexed
+ * row * 5 + col and a set of squares is an int with bit (row * 5 + col) set for each square.
+ */
+
+public class Attacks {
+
+    // directions as {row, col} offsets, rook directions first then bishop directions
+    static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    static final int[] ROOK_DIRECTIONS = {0, 1, 2, 3};
+    static final int[] BISHOP_DIRECTIONS = {4, 5, 6, 7};
+
+    // STEPS[kind][side][promoted][square] = squares a piece reaches in one step (no sliding)
+    static final int[][][][] STEPS = new int[Piece.NUM_KINDS][2][2][25];
+    // RAYS[direction][square] = squares from square (exclusive) to the board's edge in direction
+    static final int[][] RAYS = new int[DIRECTIONS.length][25];
+    // RANGE[kind][side][promoted][square] = every square a piece reaches on an empty board
+    static final int[][][][] RANGE = new int[Piece.NUM_KINDS][2][2][25];
+
+    static {
+        int[][] king = {{0, 1}, {0, -1}, {1, 0}, {1, 1}, {1, -1}, {-1, 0}, {-1, 1}, {-1, -1}};
+        int[][] gold = {{0, 1}, {0, -1}, {1, 0}, {1, 1}, {1, -1}, {-1, 0}};
+        int[][] silver = {{1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        int[][] pawn = {{1, 0}};
+        int[][] none = {};
+
+        for (int side = 0; side < 2; side++) {
+            // upper moves "up" the board towards row 4, lower moves towards row 0
+            int forward = side == Player.UPPER_SIDE ? 1 : -1;
+            for (int sq = 0; sq < 25; sq++) {
+                // king can move 1 square in any direction, cannot promote
+                STEPS[Piece.KING][side][0][sq] = steps(king, sq, forward);
+                STEPS[Piece.KING][side][1][sq] = steps(king, sq, forward);
+                // rook/bishop only slide, promoted they can also move like a king
+                STEPS[Piece.ROOK][side][0][sq] = steps(none, sq, forward);
+                STEPS[Piece.ROOK][side][1][sq] = steps(king, sq, forward);
+                STEPS[Piece.BISHOP][side][0][sq] = steps(none, sq, forward);
+                STEPS[Piece.BISHOP][side][1][sq] = steps(king, sq, forward);
+                // gold general can move 1 square in any direction except for backwards diagonal, cannot promote
+                STEPS[Piece.GOLD_GENERAL][side][0][sq] = steps(gold, sq, forward);
+                STEPS[Piece.GOLD_GENERAL][side][1][sq] = steps(gold, sq, forward);
+                // silver general can move 1 square in any direction except for left/right/back, promoted moves like gold
+                STEPS[Piece.SILVER_GENERAL][side][0][sq] = steps(silver, sq, forward);
+                STEPS[Piece.SILVER_GENERAL][side][1][sq] = steps(gold, sq, forward);
+                // pawn can move "up" 1 square, promoted moves like gold
+                STEPS[Piece.PAWN][side][0][sq] = steps(pawn, sq, forward);
+                STEPS[Piece.PAWN][side][1][sq] = steps(gold, sq, forward);
+            }
+        }
+
+        for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+            for (int sq = 0; sq < 25; sq++) {
+                int ray = 0;
+                int row = Board.rowOf(sq) + DIRECTIONS[dir][0];
+                int col = Board.colOf(sq) + DIRECTIONS[dir][1];
+                while (row >= 0 && col >= 0 && row < 5 && col < 5) {
+                    ray |= 1 << Board.toSquare(row, col);
+                    row += DIRECTIONS[dir][0];
+                    col += DIRECTIONS[dir][1];
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            for (int side = 0; side < 2; side++) {
+                for (int promoted = 0; promoted < 2; promoted++) {
+                    for (int sq = 0; sq < 25; sq++) {
+                        RANGE[kind][side][promoted][sq] = getAttacks(kind, side, promoted == 1, sq, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the set of on-board squares reached from square by each {row, col} offset
+     *
+     * @param offsets           int[][], {row, col} offsets, row offset is relative to forward
+     * @param square            int, starting square
+     * @param forward           int, 1 = forward is increasing row, -1 = forward is decreasing row
+     * @return                  int, set of reachable squares
+     */
+    private static int steps(int[][] offsets, int square, int forward) {
+        int m = 0;
+        for (int[] offset : offsets) {
+            int row = Board.rowOf(square) + (forward * offset[0]);
+            int col = Board.colOf(square) + offset[1];
+            if (row >= 0 && col >= 0 && row < 5 && col < 5) {
+                m |= 1 << Board.toSquare(row, col);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Slides from square in each direction until the edge of the board or the first occupied square (included)
+     *
+     * @param directions        int[], indices into DIRECTIONS
+     * @param square            int, starting square
+     * @param occupied          int, set of occupied squares
+     * @return                  int, set of reachable squares
+     */
+    private static int slide(int[] directions, int square, int occupied) {
+        int m = 0;
+        for (int dir : directions) {
+            int ray = RAYS[dir][square];
+            int blockers = ray & occupied;
+            if (blockers != 0) {
+                // nearest blocker is the lowest square for increasing directions, highest for decreasing
+                int delta = DIRECTIONS[dir][0] * 5 + DIRECTIONS[dir][1];
+                int blocker = delta > 0 ? Integer.numberOfTrailingZeros(blockers) : 31 - Integer.numberOfLeadingZeros(blockers);
+                ray &= ~RAYS[dir][blocker];
+            }
+            m |= ray;
+        }
+        return m;
+    }
+
+    /**
+     * Gets every square a piece attacks from square, sliding pieces stop at the first occupied square
+     *
+     * @param kind              int, piece kind
+     * @param side              int, piece's side
+     * @param isPromoted        boolean, true = piece is promoted
+     * @param square            int, piece's square
+     * @param occupied          int, set of occupied squares
+     * @return                  int, set of attacked squares
+     */
+    public static int getAttacks(int kind, int side, boolean isPromoted, int square, int occupied) {
+        int m = STEPS[kind][side][isPromoted ? 1 : 0][square];
+        if (kind == Piece.ROOK) {
+            m |= slide(ROOK_DIRECTIONS, square, occupied);
+        } else if (kind == Piece.BISHOP) {
+            m |= slide(BISHOP_DIRECTIONS, square, occupied);
+        }
+        return m;
+    }
+
+    /**
+     * Gets every square a piece reaches from square on an empty board
+     *
+     * @param kind              int, piece kind
+     * @param side              int, piece's side
+     * @param isPromoted        boolean, true = piece is promoted
+     * @param square            int, piece's square
+     * @return                  int, set of reachable squares
+     */
+    public static int getRange(int kind, int side, boolean isPromoted, int square) {
+        return RANGE[kind][side][isPromoted ? 1 : 0][square];
+    }
+}
@@ -0,0 +1,157 @@
+package src;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Description: plays many game files in file mode in one run, spread over a pool of threads. Every file's output
+ * is exactly what -f prints for it, written in file order either to one stream (after a "==> file <==" line) or to
+ * its own file, followed by a count of how the games ended (a file may hold several games).
+ */
+
+public class Batch {
+
+    /*
+     * Output of one game file and how its games ended
+     */
+    private static class Result {
+        final Path file;
+        final byte[] output;
+        final int[] counts;         // games per outcome, indexed like the summary
+
+        Result(Path file, byte[] output, int[] counts) {
+            this.file = file;
+            this.output = output;
+            this.counts = counts;
+        }
+    }
+
+    // summary outcomes
+    private static final int CHECKMATES = 0;
+    private static final int ILLEGAL_MOVES = 1;
+    private static final int TIES = 2;
+    private static final int UNFINISHED = 3;
+    private static final int FAILURES = 4;
+
+    /**
+     * Finds the game files to play: every regular file in a directory, or every file matching a glob like
+     * "games/*.in"
+     *
+     * @param pattern           String, directory or glob
+     * @return                  List<Path>, matching files sorted by path
+     */
+    public static List<Path> findFiles(String pattern) throws IOException {
+        Path dir = Paths.get(pattern);
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+
+        // walk from the deepest directory before the first glob character
+        int firstGlob = 0;
+        while (firstGlob < pattern.length() && "*?[{".indexOf(pattern.charAt(firstGlob)) < 0) {
+            firstGlob++;
+        }
+        int lastSeparator = Math.max(pattern.lastIndexOf('/', firstGlob), pattern.lastIndexOf('\\', firstGlob));
+        Path root = Paths.get(lastSeparator < 0 ? "" : pattern.substring(0, lastSeparator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Plays every file on threads workers and prints their outputs in file order, then the summary
+     *
+     * @param files             List<Path>, game files to play
+     * @param threads           int, number of worker threads, at least 1
+     * @param outDir            String, directory to write each file's output to as <file name>.out, null = out
+     * @param out               PrintStream, where to print outputs (unless outDir is given) and the summary
+     * @return                  void
+     */
+    public static void run(List<Path> files, int threads, String outDir, PrintStream out) throws Exception {
+        if (threads < 1) {
+            throw new IllegalArgumentException("batch threads must be at least 1");
+        }
+        if (outDir != null) {
+            Files.createDirectories(Paths.get(outDir));
+        }
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Result>> results = new ArrayList<>(files.size());
+        for (Path file : files) {
+            results.add(pool.submit(() -> play(file)));
+        }
+
+        int[] counts = new int[5];
+        try {
+            for (Future<Result> future : results) {
+                Result result = future.get();
+                if (outDir != null) {
+                    Files.write(Paths.get(outDir, result.file.getFileName() + ".out"), result.output);
+                } else {
+                    out.println("==> " + result.file + " <==");
+                    out.write(result.output);
+                }
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += result.counts[i];
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        out.println();
+        out.println("Files: " + files.size());
+        out.println("Games: " + (counts[CHECKMATES] + counts[ILLEGAL_MOVES] + counts[TIES] + counts[UNFINISHED]));
+        out.println("Checkmates: " + counts[CHECKMATES]);
+        out.println("Illegal moves: " + counts[ILLEGAL_MOVES]);
+        out.println("Ties: " + counts[TIES]);
+        out.println("Unfinished: " + counts[UNFINISHED]);
+        out.println("Failures: " + counts[FAILURES]);
+        out.println("Time: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Plays every game of one file exactly like -f, printing any exception the same way
+     *
+     * @param file              Path, game file
+     * @return                  Result, what -f would print and how the games ended
+     */
+    private static Result play(Path file) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes);
+        int[] counts = new int[5];
+        try (GameSource reader = GameSource.open(file.toString())) {
+            PlayGame g = reader.nextGame();
+            if (g == null) {
+                throw new IllegalArgumentException("No game in " + file);
+            }
+            StringBuilder sb = new StringBuilder(256);
+            for (; g != null; g = reader.nextGame()) {
+                int gameState = Main.playGame(reader, g, out, sb);
+                counts[gameState >= 1 && gameState <= 3 ? gameState - 1 : UNFINISHED]++;
+            }
+        } catch (Exception e) {
+            // a file that fails part way counts once as a failure, the games before it still count
+            out.println(e.toString());
+            counts[FAILURES]++;
+        }
+        out.flush();
+        return new Result(file, bytes.toByteArray(), counts);
+    }
+}
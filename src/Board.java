@@ -11,26 +11,97 @@ public class Board {
 
     Piece[][] board;
     final int BOARD_SIZE = 5;
+
+    // bitboards: bit (row * BOARD_SIZE + col) is set when that square holds a matching piece
+    int[][] pieceMasks;         // pieceMasks[side][kind] = squares holding side's pieces of that kind
+    int[] sideMasks;            // sideMasks[side] = squares holding any of side's pieces
+    int promotedMask;           // squares holding a promoted piece
+    int occupiedMask;           // squares holding any piece
+    long hash;                  // Zobrist hash of the pieces on the board, kept up to date by setPiece
+    EvalWeights evalWeights;    // weights eval is kept with, null = eval is not kept
+    int eval;                   // evalWeights score of the pieces on the board, kept up to date by setPiece
+
+    // attack maps, kept up to date by setPiece: only the changed square and sliders whose lines cross it change
+    int[] attacksFrom;          // attacksFrom[square] = squares attacked by the piece on square, 0 if empty
+    byte[][] attackCounts;      // attackCounts[side][square] = number of side's pieces attacking square
+    int[] attackedMasks;        // attackedMasks[side] = squares attacked by at least one of side's pieces
+
+    // BETWEEN[from][to] = squares strictly between from and to when they share a row, col or diagonal
+    static final int[][] BETWEEN = new int[25][25];
+    // LINE[from][to] = the whole row, col or diagonal through from and to, edge to edge, 0 if they share none
+    static final int[][] LINE = new int[25][25];
+    static final int[] ROW_MASKS = new int[5];
+    static final int[] COL_MASKS = new int[5];
+    static final int ALL_SQUARES = (1 << 25) - 1;
+
+    // rendering: each square is three characters, looked up instead of built so toString only copies characters
+    static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final String EMPTY_GLYPH = "__|";
+    private static final String[] GLYPHS = new String[4 * Piece.NUM_KINDS];     // by PieceType index
+    private static final String COLS_LINE = "    a  b  c  d  e" + LINE_SEPARATOR;
+
+    static {
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            for (int side = Player.LOWER_SIDE; side <= Player.UPPER_SIDE; side++) {
+                PieceType type = PieceType.of(kind, side, false);
+                GLYPHS[type.index()] = " " + type.getName() + "|";
+                if ((type = type.promote()) != null) {
+                    GLYPHS[type.index()] = type.getName() + "|";
+                }
+            }
+        }
+
+        for (int sq = 0; sq < 25; sq++) {
+            ROW_MASKS[rowOf(sq)] |= 1 << sq;
+            COL_MASKS[colOf(sq)] |= 1 << sq;
+        }
+
+        int[][] directions = {{0, 1}, {0, -1}, {1, 0}, {1, 1}, {1, -1}, {-1, 0}, {-1, 1}, {-1, -1}};
+        for (int from = 0; from < 25; from++) {
+            for (int[] direction : directions) {
+                int between = 0;
+                int row = rowOf(from) + direction[0];
+                int col = colOf(from) + direction[1];
+                while (row >= 0 && col >= 0 && row < 5 && col < 5) {
+                    int to = toSquare(row, col);
+                    BETWEEN[from][to] = between;
+                    between |= 1 << to;
+                    row += direction[0];
+                    col += direction[1];
+                }
+                // between now holds the ray to the edge, which is also part of the line through each square on it
+                for (int ray = between; ray != 0; ray &= ray - 1) {
+                    LINE[from][Integer.numberOfTrailingZeros(ray)] |= between | 1 << from;
+                    LINE[Integer.numberOfTrailingZeros(ray)][from] |= between | 1 << from;
+                }
+            }
+        }
+    }
     
 
     public Board() {
         board = new Piece[BOARD_SIZE][BOARD_SIZE];
+        pieceMasks = new int[2][Piece.NUM_KINDS];
+        sideMasks = new int[2];
+        attacksFrom = new int[25];
+        attackCounts = new byte[2][25];
+        attackedMasks = new int[2];
 
     	// set default pieces for Upper player
-        setPiece(new Rook("N", Player.upper, 0, 0), 0, 0);
-        setPiece(new Bishop("G", Player.upper, 0, 1), 0, 1);
-        setPiece(new SilverGeneral("R", Player.upper, 0, 2), 0, 2);
-        setPiece(new GoldGeneral("S", Player.upper, 0, 3), 0, 3);
-        setPiece(new King("D", Player.upper, 0, 4), 0, 4);
-        setPiece(new Pawn("P", Player.upper, 1, 4), 1, 4);
+        setPiece(new Rook(Player.UPPER_SIDE, 0, 0), 0, 0);
+        setPiece(new Bishop(Player.UPPER_SIDE, 0, 1), 0, 1);
+        setPiece(new SilverGeneral(Player.UPPER_SIDE, 0, 2), 0, 2);
+        setPiece(new GoldGeneral(Player.UPPER_SIDE, 0, 3), 0, 3);
+        setPiece(new King(Player.UPPER_SIDE, 0, 4), 0, 4);
+        setPiece(new Pawn(Player.UPPER_SIDE, 1, 4), 1, 4);
 
         // set default pieces for Lower player
-        setPiece(new Rook("n", Player.lower, 4, 4), 4, 4);
-        setPiece(new GoldGeneral("s", Player.lower, 3, 1), 4, 1);
-        setPiece(new SilverGeneral("r", Player.lower, 2, 0), 4, 2);
-        setPiece(new Bishop("g", Player.lower, 4, 3), 4, 3);
-        setPiece(new King("d", Player.lower, 4, 0), 4, 0);
-        setPiece(new Pawn("p", Player.lower, 3, 0), 3, 0);
+        setPiece(new Rook(Player.LOWER_SIDE, 4, 4), 4, 4);
+        setPiece(new GoldGeneral(Player.LOWER_SIDE, 4, 1), 4, 1);
+        setPiece(new SilverGeneral(Player.LOWER_SIDE, 4, 2), 4, 2);
+        setPiece(new Bishop(Player.LOWER_SIDE, 4, 3), 4, 3);
+        setPiece(new King(Player.LOWER_SIDE, 4, 0), 4, 0);
+        setPiece(new Pawn(Player.LOWER_SIDE, 3, 0), 3, 0);
 
         
         
@@ -38,6 +109,11 @@ public class Board {
 
     public Board(List<InitialPosition> initialPieces, Player upper, Player lower) {
         board = new Piece[BOARD_SIZE][BOARD_SIZE];
+        pieceMasks = new int[2][Piece.NUM_KINDS];
+        sideMasks = new int[2];
+        attacksFrom = new int[25];
+        attackCounts = new byte[2][25];
+        attackedMasks = new int[2];
 
         // set up board according to file
         for (InitialPosition ip : initialPieces) {
@@ -47,7 +123,7 @@ public class Board {
             setPiece(p, coordinates[0], coordinates[1]);
             
             // add piece to player's myPieces
-            if (p.getOwner().equals(Player.upper)) {
+            if (p.getSide() == Player.UPPER_SIDE) {
                 upper.addMyPieces(p);
             } else {
                 lower.addMyPieces(p);
@@ -55,16 +131,349 @@ public class Board {
         }
     }
 
+    /**
+     * Makes an independent copy of other, each copied piece is added to its owner's myPieces
+     * 
+     * @param other             Board, board to copy
+     * @param upper             Player, upper player of the copy
+     * @param lower             Player, lower player of the copy
+     */
+    public Board(Board other, Player upper, Player lower) {
+        board = new Piece[BOARD_SIZE][BOARD_SIZE];
+        pieceMasks = new int[2][Piece.NUM_KINDS];
+        sideMasks = new int[2];
+        attacksFrom = new int[25];
+        attackCounts = new byte[2][25];
+        attackedMasks = new int[2];
+
+        for (int occupied = other.occupiedMask; occupied != 0; occupied &= occupied - 1) {
+            int sq = Integer.numberOfTrailingZeros(occupied);
+            Piece p = other.getPiece(rowOf(sq), colOf(sq)).copy();
+            setPiece(p, rowOf(sq), colOf(sq));
+            if (p.getSide() == Player.UPPER_SIDE) {
+                upper.addMyPieces(p);
+            } else {
+                lower.addMyPieces(p);
+            }
+        }
+    }
+
+    public static int toSquare(int row, int col) {
+        return row * 5 + col;
+    }
+
+    public static int rowOf(int square) {
+        return square / 5;
+    }
+
+    public static int colOf(int square) {
+        return square % 5;
+    }
+
     public boolean isOccupied(int row, int col) {
-        return board[row][col] != null;
+        return (occupiedMask & (1 << toSquare(row, col))) != 0;
     }
 
     public Piece getPiece(int row, int col) {
         return board[row][col];
     }
 
+    /**
+     * Puts piece p on (row, col) and updates the bitboards, p = null empties the square
+     * 
+     * @param p                 Piece, piece to put on the square
+     * @param row               int, square's y coordinate
+     * @param col               int, square's x coordinate
+     * @return                  void
+     */
     public void setPiece(Piece p, int row, int col) {
         board[row][col] = p;
+
+        // clear square using the masks, the old piece may have changed owner/promotion since it was set
+        int sq = toSquare(row, col);
+        int bit = 1 << sq;
+        boolean wasOccupied = (occupiedMask & bit) != 0;
+        if (wasOccupied) {
+            int side = (sideMasks[Player.UPPER_SIDE] & bit) != 0 ? Player.UPPER_SIDE : Player.LOWER_SIDE;
+            int kind = 0;
+            while ((pieceMasks[side][kind] & bit) == 0) {
+                kind++;
+            }
+            boolean isPromoted = (promotedMask & bit) != 0;
+            hash ^= Zobrist.pieceKey(side, isPromoted, kind, sq);
+            if (evalWeights != null) {
+                eval -= evalWeights.squareScore(side, isPromoted, kind, sq);
+            }
+            setAttacks(sq, side, 0);
+            pieceMasks[side][kind] &= ~bit;
+            sideMasks[side] &= ~bit;
+            promotedMask &= ~bit;
+            occupiedMask &= ~bit;
+        }
+
+        if (p != null) {
+            pieceMasks[p.getSide()][p.getKind()] |= bit;
+            sideMasks[p.getSide()] |= bit;
+            if (p.getIsPromoted()) {
+                promotedMask |= bit;
+            }
+            occupiedMask |= bit;
+            hash ^= Zobrist.pieceKey(p.getSide(), p.getIsPromoted(), p.getKind(), sq);
+            if (evalWeights != null) {
+                eval += evalWeights.squareScore(p.getSide(), p.getIsPromoted(), p.getKind(), sq);
+            }
+            setAttacks(sq, p.getSide(), Attacks.getAttacks(p.getKind(), p.getSide(), p.getIsPromoted(), sq, occupiedMask));
+        }
+        if (wasOccupied != (p != null)) {
+            updateSliders(sq);
+        }
+    }
+
+    /**
+     * Replaces the attacks of the piece on square in the attack maps
+     * 
+     * @param square            int, square of the piece
+     * @param side              int, side of the piece
+     * @param attacks           int, set of squares the piece now attacks, 0 = none
+     * @return                  void
+     */
+    private void setAttacks(int square, int side, int attacks) {
+        int old = attacksFrom[square];
+        byte[] counts = attackCounts[side];
+        for (int lost = old & ~attacks; lost != 0; lost &= lost - 1) {
+            int target = Integer.numberOfTrailingZeros(lost);
+            if (--counts[target] == 0) {
+                attackedMasks[side] &= ~(1 << target);
+            }
+        }
+        for (int gained = attacks & ~old; gained != 0; gained &= gained - 1) {
+            int target = Integer.numberOfTrailingZeros(gained);
+            if (counts[target]++ == 0) {
+                attackedMasks[side] |= 1 << target;
+            }
+        }
+        attacksFrom[square] = attacks;
+    }
+
+    /**
+     * Recomputes the attacks of every rook/bishop whose line reaches square, since square was just emptied or filled
+     * 
+     * @param square            int, square whose occupancy changed
+     * @return                  void
+     */
+    private void updateSliders(int square) {
+        int bit = 1 << square;
+        for (int side = 0; side < 2; side++) {
+            int sliders = (pieceMasks[side][Piece.ROOK] | pieceMasks[side][Piece.BISHOP]) & ~bit;
+            for (; sliders != 0; sliders &= sliders - 1) {
+                int sq = Integer.numberOfTrailingZeros(sliders);
+                // a line reaching square always includes it, whether square was the blocker or an empty square on it
+                if ((attacksFrom[sq] & bit) != 0) {
+                    int kind = (pieceMasks[side][Piece.ROOK] & (1 << sq)) != 0 ? Piece.ROOK : Piece.BISHOP;
+                    setAttacks(sq, side, Attacks.getAttacks(kind, side, (promotedMask & (1 << sq)) != 0, sq, occupiedMask));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Zobrist hash of the pieces on the board, see PlayGame.getHash for the whole position
+     * 
+     * @return                  long, XOR of the key of every piece on its square
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Starts keeping the score of the pieces on the board with weights, scoring the board once
+     * 
+     * @param weights           EvalWeights, weights to score with, null stops keeping the score
+     * @return                  void
+     */
+    public void setEvalWeights(EvalWeights weights) {
+        evalWeights = weights;
+        eval = weights == null ? 0 : getEval(weights);
+    }
+
+    public EvalWeights getEvalWeights() {
+        return evalWeights;
+    }
+
+    /**
+     * Gets the evalWeights score of the pieces on the board, see PlayGame.getEval for the whole position
+     * 
+     * @return                  int, score, positive = better for lower
+     */
+    public int getEval() {
+        return eval;
+    }
+
+    /**
+     * Scores the pieces on the board with weights by scanning them, whatever weights eval is kept with
+     * 
+     * @param weights           EvalWeights, weights to score with
+     * @return                  int, score, positive = better for lower
+     */
+    public int getEval(EvalWeights weights) {
+        int score = 0;
+        for (int side = Player.LOWER_SIDE; side <= Player.UPPER_SIDE; side++) {
+            for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+                for (int mask = pieceMasks[side][kind]; mask != 0; mask &= mask - 1) {
+                    int sq = Integer.numberOfTrailingZeros(mask);
+                    score += weights.squareScore(side, (promotedMask & (1 << sq)) != 0, kind, sq);
+                }
+            }
+        }
+        return score;
+    }
+
+    public int getOccupiedMask() {
+        return occupiedMask;
+    }
+
+    public int getSideMask(int side) {
+        return sideMasks[side];
+    }
+
+    public int getPieceMask(int side, int kind) {
+        return pieceMasks[side][kind];
+    }
+
+    public int getPromotedMask() {
+        return promotedMask;
+    }
+
+    /**
+     * Gets side's king square from the king bitboard
+     * 
+     * @param side              int, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @return                  int, king's square or -1 if side has no king on the board
+     */
+    public int getKingSquare(int side) {
+        int king = pieceMasks[side][Piece.KING];
+        return king == 0 ? -1 : Integer.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Checks that no piece stands strictly between from and to
+     * 
+     * @param from              int, starting square
+     * @param to                int, ending square
+     * @return                  boolean, true = path is clear, false = path is blocked
+     */
+    public boolean isPathClear(int from, int to) {
+        return (BETWEEN[from][to] & occupiedMask) == 0;
+    }
+
+    /**
+     * Gets every piece of side that attacks square if the occupied squares were occupied
+     * A piece of side on x attacks square exactly when the same piece of the other side on square attacks x,
+     * since every piece's movement is mirrored left/right
+     * 
+     * @param square            int, attacked square
+     * @param side              int, attacking side
+     * @param occupied          int, set of occupied squares used to block sliding pieces
+     * @return                  int, set of squares holding an attacker
+     */
+    public int attackersTo(int square, int side, int occupied) {
+        int attackers = 0;
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            int pieces = pieceMasks[side][kind];
+            if (pieces != 0) {
+                attackers |= pieces & ~promotedMask & Attacks.getAttacks(kind, 1 - side, false, square, occupied);
+                attackers |= pieces & promotedMask & Attacks.getAttacks(kind, 1 - side, true, square, occupied);
+            }
+        }
+        return attackers;
+    }
+
+    /**
+     * Checks if any of side's pieces can reach (row, col)
+     * 
+     * @param row               int, square's y coordinate
+     * @param col               int, square's x coordinate
+     * @param side              int, attacking side
+     * @return                  boolean, true = square is attacked, false = square is safe
+     */
+    public boolean isAttacked(int row, int col, int side) {
+        return isAttacked(toSquare(row, col), side);
+    }
+
+    public boolean isAttacked(int square, int side) {
+        return (attackedMasks[side] & (1 << square)) != 0;
+    }
+
+    /**
+     * Gets every square attacked by side from the attack maps, squares holding pieces included
+     * 
+     * @param side              int, attacking side
+     * @return                  int, set of attacked squares
+     */
+    public int getAttackedMask(int side) {
+        return attackedMasks[side];
+    }
+
+    public int getAttacksFrom(int square) {
+        return attacksFrom[square];
+    }
+
+    /**
+     * Checks if side's king is attacked
+     * 
+     * @param side              int, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @return                  boolean, true = in check, false = not in check or side has no king
+     */
+    public boolean isInCheck(int side) {
+        int king = pieceMasks[side][Piece.KING];
+        return (attackedMasks[1 - side] & king) != 0;
+    }
+
+    /**
+     * Gets side's pieces pinned to side's king: the only piece between the king and an opponent rook/bishop line
+     * A pinned piece can only move along the line through its king and itself
+     * 
+     * @param side              int, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @return                  int, set of squares holding a pinned piece
+     */
+    public int pinnedPieces(int side) {
+        int king = getKingSquare(side);
+        if (king < 0) {
+            return 0;
+        }
+        int opponent = 1 - side;
+        int pinned = 0;
+        for (int sliders = pieceMasks[opponent][Piece.ROOK] | pieceMasks[opponent][Piece.BISHOP]; sliders != 0; sliders &= sliders - 1) {
+            int sq = Integer.numberOfTrailingZeros(sliders);
+            int kind = (pieceMasks[opponent][Piece.ROOK] & (1 << sq)) != 0 ? Piece.ROOK : Piece.BISHOP;
+            if ((Attacks.getRange(kind, opponent, false, sq) & (1 << king)) != 0) {
+                int between = BETWEEN[sq][king] & occupiedMask;
+                if (between != 0 && (between & (between - 1)) == 0 && (between & sideMasks[side]) != 0) {
+                    pinned |= between;
+                }
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Gets side's rooks/bishops attacking square along a line
+     * 
+     * @param square            int, attacked square
+     * @param side              int, attacking side
+     * @return                  int, set of squares holding such a slider
+     */
+    public int sliderAttackersTo(int square, int side) {
+        int attackers = 0;
+        for (int sliders = pieceMasks[side][Piece.ROOK] | pieceMasks[side][Piece.BISHOP]; sliders != 0; sliders &= sliders - 1) {
+            int sq = Integer.numberOfTrailingZeros(sliders);
+            int kind = (pieceMasks[side][Piece.ROOK] & (1 << sq)) != 0 ? Piece.ROOK : Piece.BISHOP;
+            // unpromoted range = the slider's lines, a promoted slider's one step diagonal/orthogonal moves are not
+            if ((attacksFrom[sq] & Attacks.getRange(kind, side, false, sq) & (1 << square)) != 0) {
+                attackers |= 1 << sq;
+            }
+        }
+        return attackers;
     }
 
     /**
@@ -77,50 +486,20 @@ public class Board {
     public Piece makePiece(String setup, int[] currPos) {
 
         Piece p;
-        String piece = setup.substring(0, 1);
         char pieceAsChar = setup.charAt(0);
         if (pieceAsChar == '+') {
             // piece starts as promoted
             pieceAsChar = setup.charAt(1);
-            piece = setup.substring(1);
         }
         // get owner of piece
-        String owner = Player.lower;
+        int side = Player.LOWER_SIDE;
         if (pieceAsChar >= 'A' && pieceAsChar <= 'Z') {
-            owner = Player.upper;
+            side = Player.UPPER_SIDE;
         }
         pieceAsChar = Character.toLowerCase(pieceAsChar);
 
         // make new piece based on pieceAsChar
-        switch (pieceAsChar) {
-            case 'd':
-                // king
-                p = new King(piece, owner, currPos[0], currPos[1]);
-                break;
-            case 'n':
-                // rook
-                p = new Rook(piece, owner, currPos[0], currPos[1]);
-                break;
-            case 'g':
-                // bishop
-                p = new Bishop(piece, owner, currPos[0], currPos[1]);
-                break;
-            case 's':
-                // gold general
-                p = new GoldGeneral(piece, owner, currPos[0], currPos[1]);
-                break;
-            case 'r':
-                // silver general
-                p = new SilverGeneral(piece, owner, currPos[0], currPos[1]);
-                break;
-            case 'p':
-                // pawn
-                p = new Pawn(piece, owner, currPos[0], currPos[1]);
-                break;
-            default:
-                // illegal piece made
-                p = null;
-        }
+        p = newPiece(Piece.KIND_LETTERS.indexOf(pieceAsChar), side, currPos[0], currPos[1]);
 
         if (p != null && setup.length() == 2) {
             // promote piece p
@@ -140,6 +519,35 @@ public class Board {
 
     }
 
+    /**
+     * make a new unpromoted piece of a kind
+     * 
+     * @param kind              int, piece kind like Piece.PAWN
+     * @param side              int, owner, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @param row               int, piece's starting y coordinate
+     * @param col               int, piece's starting x coordinate
+     * @return                  Piece, new piece or null if kind is not a piece kind
+     */
+    public static Piece newPiece(int kind, int side, int row, int col) {
+        switch (kind) {
+            case Piece.KING:
+                return new King(side, row, col);
+            case Piece.ROOK:
+                return new Rook(side, row, col);
+            case Piece.BISHOP:
+                return new Bishop(side, row, col);
+            case Piece.GOLD_GENERAL:
+                return new GoldGeneral(side, row, col);
+            case Piece.SILVER_GENERAL:
+                return new SilverGeneral(side, row, col);
+            case Piece.PAWN:
+                return new Pawn(side, row, col);
+            default:
+                // illegal piece made
+                return null;
+        }
+    }
+
     /**
      * Converts user input version of move to (y, x) coordinates
      * For example, converts a5 to {0, 0}
@@ -174,44 +582,24 @@ public class Board {
      * @return                  String, current board state
      */
     public String toString() {
-        String[][] pieces = new String[BOARD_SIZE][BOARD_SIZE];
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece curr = (Piece) board[col][row];
-                pieces[col][row] = this.isOccupied(col, row) ? board[col][row].toString() : "";
-            }
-        }
-        return stringifyBoard(pieces);
+        return appendTo(new StringBuilder(24 * BOARD_SIZE)).toString();
     }
 
-    public String stringifyBoard(String[][] board) {
-        String str = "";
-
-        for (int row = 0; row < board.length; row++) {
-
-            str += Integer.toString(5 - row) + " |";
-            for (int col = 0; col < board[row].length; col++) {
-                str += stringifySquare(board[row][col]);
+    /**
+     * Writes the board exactly like toString into sb, so output can reuse one StringBuilder
+     * 
+     * @param sb                StringBuilder, where to write
+     * @return                  StringBuilder, sb
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            sb.append((char) ('5' - row)).append(" |");
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                Piece p = board[row][col];
+                sb.append(p == null ? EMPTY_GLYPH : GLYPHS[p.getType().index()]);
             }
-            str += System.getProperty("line.separator");
-        }
-
-        str += "    a  b  c  d  e" + System.getProperty("line.separator");
-
-        return str;
-    }
-
-    private String stringifySquare(String sq) {
-        switch (sq.length()) {
-            case 0:
-                return "__|";
-            case 1:
-                return " " + sq + "|";
-            case 2:
-                return sq + "|";
+            sb.append(LINE_SEPARATOR);
         }
-
-        throw new IllegalArgumentException("Board must be an array of strings like \"\", \"P\", or \"+P\"" + " not " + sq);
+        return sb.append(COLS_LINE);
     }
 }
-
@@ -0,0 +1,184 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Description: a game's whole refereeing state packed into a few dozen bytes, for keeping many games in memory
+ * at once. A PlayGame made from it plays on exactly like the game it was taken from (its move history and undo
+ * stack start empty).
+ *
+ * Bit layout, written from bit 0 up:
+ *      5 bits per square, in square order      0 = empty, else piece code + 1
+ *      5 bits per hand, UPPER's then lower's   number of captured pieces, then 5 bit piece code of each capture
+ *                                              in hand order
+ *      1 bit                                   side to move
+ *      9 bits                                  numMoves
+ *      3 bits                                  gameState + 1
+ * Piece code: bits 0-2 = kind, bit 3 = upper's piece, bit 4 = promoted
+ */
+
+public final class CompactState {
+
+    private static final int UPPER_CODE = 1 << 3;
+    private static final int PROMOTED_CODE = 1 << 4;
+    private static final int MAX_HAND = 31;
+    private static final int NUM_MOVES_BITS = 9;
+    private static final int MAX_NUM_MOVES = (1 << NUM_MOVES_BITS) - 1;
+
+    private final byte[] bits;
+
+    private CompactState(byte[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Packs a game's pieces, captures, side to move, move count and game state
+     *
+     * @param game              PlayGame, game to pack
+     * @return                  CompactState, packed game
+     */
+    public static CompactState of(PlayGame game) {
+        Board board = game.getBoard();
+        Player upperHand = game.getPlayer(Player.UPPER_SIDE);
+        Player lowerHand = game.getPlayer(Player.LOWER_SIDE);
+        if (upperHand.handSize() > MAX_HAND || lowerHand.handSize() > MAX_HAND) {
+            throw new IllegalArgumentException("More than " + MAX_HAND + " captured pieces");
+        }
+        // the move limit ties games at 400 moves, so a refereed game's count always fits
+        if (game.getNumMoves() < 0 || game.getNumMoves() > MAX_NUM_MOVES) {
+            throw new IllegalArgumentException("Move count " + game.getNumMoves() + " is not between 0 and "
+                    + MAX_NUM_MOVES);
+        }
+        BitWriter out = new BitWriter();
+        for (int sq = 0; sq < 25; sq++) {
+            Piece p = board.getPiece(Board.rowOf(sq), Board.colOf(sq));
+            out.write(p == null ? 0 : pieceCode(p.getType()) + 1, 5);
+        }
+        for (Player hand : List.of(upperHand, lowerHand)) {
+            out.write(hand.handSize(), 5);
+            for (int i = 0; i < hand.handSize(); i++) {
+                out.write(pieceCode(hand.getHandPiece(i)), 5);
+            }
+        }
+        out.write(game.getCurrPlayer().getSide(), 1);
+        out.write(game.getNumMoves(), NUM_MOVES_BITS);
+        out.write(game.getGameState() + 1, 3);
+        return new CompactState(out.toBytes());
+    }
+
+    private static int pieceCode(PieceType type) {
+        return type.getKind() | (type.getSide() == Player.UPPER_SIDE ? UPPER_CODE : 0)
+                | (type.isPromoted() ? PROMOTED_CODE : 0);
+    }
+
+    /**
+     * Unpacks the game, a player in check is offered the same moves out of check as before it was packed
+     *
+     * @return                  PlayGame, new game in the packed state
+     */
+    public PlayGame toGame() {
+        PlayGame game = new PlayGame(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Board board = game.getBoard();
+        BitReader in = new BitReader(bits);
+        for (int sq = 0; sq < 25; sq++) {
+            int code = in.read(5);
+            if (code != 0) {
+                Piece p = makePiece(code - 1, Board.rowOf(sq), Board.colOf(sq));
+                board.setPiece(p, Board.rowOf(sq), Board.colOf(sq));
+                game.getPlayer(p.getSide()).addMyPieces(p);
+            }
+        }
+        for (int side = Player.UPPER_SIDE; side >= Player.LOWER_SIDE; side--) {
+            Player hand = game.getPlayer(side);
+            for (int count = in.read(5); count > 0; count--) {
+                // captured pieces have {0, 0} location
+                hand.addToHand(makePiece(in.read(5), 0, 0).getType());
+            }
+        }
+        if (in.read(1) != game.getCurrPlayer().getSide()) {
+            game.switchCurrPlayer();
+        }
+        game.setNumMoves(in.read(NUM_MOVES_BITS));
+        game.setGameState(in.read(3) - 1);
+        if (game.getGameState() == -1) {
+            game.findAllMoves();
+        }
+        return game;
+    }
+
+    private static Piece makePiece(int code, int row, int col) {
+        char letter = Piece.KIND_LETTERS.charAt(code & 7);
+        return GameReader.makePiece((code & UPPER_CODE) != 0 ? Character.toUpperCase(letter) : letter,
+                (code & PROMOTED_CODE) != 0, row, col);
+    }
+
+    /**
+     * Gets the size of the packed state
+     *
+     * @return                  int, number of bytes of packed bits
+     */
+    public int size() {
+        return bits.length;
+    }
+
+    public boolean equals(Object other) {
+        return other instanceof CompactState && Arrays.equals(bits, ((CompactState) other).bits);
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+
+    /*
+     * Appends bit fields to a growing array of longs
+     */
+    private static class BitWriter {
+        long[] words = new long[8];
+        int length;             // bits written
+
+        void write(int value, int width) {
+            // only the low width bits belong to this field, anything above would spill into the next one
+            value &= (1 << width) - 1;
+            if (length + width > words.length * 64) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            int word = length >>> 6;
+            int shift = length & 63;
+            words[word] |= (long) value << shift;
+            if (shift + width > 64) {
+                words[word + 1] |= (long) value >>> (64 - shift);
+            }
+            length += width;
+        }
+
+        byte[] toBytes() {
+            byte[] bytes = new byte[(length + 7) >>> 3];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+            }
+            return bytes;
+        }
+    }
+
+    /*
+     * Reads bit fields back in the order they were written
+     */
+    private static class BitReader {
+        final byte[] bytes;
+        int position;           // bits read
+
+        BitReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read(int width) {
+            int value = 0;
+            for (int i = 0; i < width; i++, position++) {
+                value |= ((bytes[position >>> 3] >>> (position & 7)) & 1) << i;
+            }
+            return value;
+        }
+    }
+}
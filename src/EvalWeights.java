@@ -0,0 +1,149 @@
+package src;
+
+/*
+ * Description: weights of the incremental evaluation, material of each kind (unpromoted and promoted), bonuses
+ * for pieces in hand and piece-square tables. Like Zobrist keys, a position's score is the sum of one entry per
+ * piece on its square and one per hand count, so Board.setPiece and Player's hand updates keep it up to date
+ * with a lookup or two. Tables are written from lower's side (row 0 is lower's promotion row) and turned around
+ * for UPPER, whose entries are negated so lower's pieces score positive.
+ */
+
+public final class EvalWeights {
+
+    // piece-square bonuses by kind, from lower's side
+    private static final int[][] SQUARE_BONUSES = {
+        {   // king: stay home
+            -20, -20, -20, -20, -20,
+            -10, -10, -10, -10, -10,
+             -5,  -5,  -5,  -5,  -5,
+              5,   5,   5,   5,   5,
+             10,  10,  10,  10,  10,
+        },
+        {   // rook
+              0,   5,   5,   5,   0,
+              5,  10,  10,  10,   5,
+              5,  10,  10,  10,   5,
+              5,  10,  10,  10,   5,
+              0,   5,   5,   5,   0,
+        },
+        {   // bishop
+              0,   5,   5,   5,   0,
+              5,  10,  10,  10,   5,
+              5,  10,  15,  10,   5,
+              5,  10,  10,  10,   5,
+              0,   5,   5,   5,   0,
+        },
+        {   // gold general
+              0,   5,   5,   5,   0,
+              5,  10,  15,  10,   5,
+              5,  10,  15,  10,   5,
+              0,   5,  10,   5,   0,
+              0,   0,   5,   0,   0,
+        },
+        {   // silver general
+             10,  15,  15,  15,  10,
+              5,  10,  15,  10,   5,
+              0,   5,  10,   5,   0,
+              0,   0,   5,   0,   0,
+              0,   0,   0,   0,   0,
+        },
+        {   // pawn: advance, row 0 never holds one since pawns promote there
+              0,   0,   0,   0,   0,
+             30,  30,  30,  30,  30,
+             20,  20,  20,  20,  20,
+             10,  10,  10,  10,  10,
+              0,   0,   0,   0,   0,
+        },
+    };
+
+    // promoted pieces: rooks and bishops keep their table, silver generals and pawns move like gold generals
+    private static final int[][] PROMOTED_SQUARE_BONUSES = {
+        SQUARE_BONUSES[Piece.KING], SQUARE_BONUSES[Piece.ROOK], SQUARE_BONUSES[Piece.BISHOP],
+        SQUARE_BONUSES[Piece.GOLD_GENERAL], SQUARE_BONUSES[Piece.GOLD_GENERAL], SQUARE_BONUSES[Piece.GOLD_GENERAL],
+    };
+
+    // a piece in hand can be dropped anywhere, worth a little more than on the board
+    private static final int[] HAND_BONUSES = {0, 50, 50, 40, 40, 20};
+
+    private static final int HAND_SIZE = Player.MAX_HAND_COUNT + 1;
+
+    public static final EvalWeights DEFAULT = new EvalWeights(MaterialEvaluator.VALUES,
+            MaterialEvaluator.PROMOTED_VALUES, HAND_BONUSES, SQUARE_BONUSES, PROMOTED_SQUARE_BONUSES);
+
+    private final int[] squareScores;       // by (PieceType index * 25 + square)
+    private final int[] handScores;         // by ((side * Piece.NUM_KINDS + kind) * HAND_SIZE + count)
+
+    /**
+     * @param values            int[], material of each kind
+     * @param promotedValues    int[], material of each kind when promoted
+     * @param handBonuses       int[], added to the material of each kind for every piece of it in hand
+     * @param squareBonuses     int[][], bonus of each kind on each square (row * 5 + col) from lower's side
+     * @param promotedSquareBonuses     int[][], like squareBonuses for promoted pieces
+     */
+    public EvalWeights(int[] values, int[] promotedValues, int[] handBonuses, int[][] squareBonuses,
+            int[][] promotedSquareBonuses) {
+        if (values.length != Piece.NUM_KINDS || promotedValues.length != Piece.NUM_KINDS
+                || handBonuses.length != Piece.NUM_KINDS || squareBonuses.length != Piece.NUM_KINDS
+                || promotedSquareBonuses.length != Piece.NUM_KINDS) {
+            throw new IllegalArgumentException("Weights need one entry per piece kind");
+        }
+        squareScores = new int[4 * Piece.NUM_KINDS * 25];
+        handScores = new int[2 * Piece.NUM_KINDS * HAND_SIZE];
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            if (squareBonuses[kind].length != 25 || promotedSquareBonuses[kind].length != 25) {
+                throw new IllegalArgumentException("Piece-square tables need one entry per square");
+            }
+            for (int sq = 0; sq < 25; sq++) {
+                // UPPER plays from the other end of the board, its squares are lower's turned around
+                setSquareScore(Player.LOWER_SIDE, false, kind, sq, values[kind] + squareBonuses[kind][sq]);
+                setSquareScore(Player.UPPER_SIDE, false, kind, sq, -values[kind] - squareBonuses[kind][24 - sq]);
+                setSquareScore(Player.LOWER_SIDE, true, kind, sq, promotedValues[kind]
+                        + promotedSquareBonuses[kind][sq]);
+                setSquareScore(Player.UPPER_SIDE, true, kind, sq, -promotedValues[kind]
+                        - promotedSquareBonuses[kind][24 - sq]);
+            }
+            for (int count = 0; count < HAND_SIZE; count++) {
+                int score = count * (values[kind] + handBonuses[kind]);
+                handScores[handIndex(Player.LOWER_SIDE, kind, count)] = score;
+                handScores[handIndex(Player.UPPER_SIDE, kind, count)] = -score;
+            }
+        }
+    }
+
+    private void setSquareScore(int side, boolean isPromoted, int kind, int square, int score) {
+        squareScores[squareIndex(side, isPromoted, kind, square)] = score;
+    }
+
+    private static int squareIndex(int side, boolean isPromoted, int kind, int square) {
+        return (((isPromoted ? 2 : 0) + side) * Piece.NUM_KINDS + kind) * 25 + square;
+    }
+
+    private static int handIndex(int side, int kind, int count) {
+        return (side * Piece.NUM_KINDS + kind) * HAND_SIZE + count;
+    }
+
+    /**
+     * Gets the score of a piece on a square
+     *
+     * @param side              int, owner, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @param isPromoted        boolean, true = promoted
+     * @param kind              int, piece kind like Piece.PAWN
+     * @param square            int, square (row * 5 + col)
+     * @return                  int, material plus square bonus, negative for UPPER's pieces
+     */
+    public int squareScore(int side, boolean isPromoted, int kind, int square) {
+        return squareScores[squareIndex(side, isPromoted, kind, square)];
+    }
+
+    /**
+     * Gets the score of a number of pieces of one kind in hand
+     *
+     * @param side              int, owner, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @param kind              int, piece kind like Piece.PAWN
+     * @param count             int, number of pieces of that kind in hand
+     * @return                  int, material plus hand bonuses of all of them, negative for UPPER's pieces
+     */
+    public int handScore(int side, int kind, int count) {
+        return handScores[handIndex(side, kind, count)];
+    }
+}
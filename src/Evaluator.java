@@ -0,0 +1,26 @@
+package src;
+
+/*
+ * Description: static evaluation used by Search, implement to plug different weights or terms into the engine.
+ */
+
+public interface Evaluator {
+
+    /**
+     * Scores the current position of game
+     * 
+     * @param game              PlayGame, position to score, must be left unchanged
+     * @return                  int, score for the side to move, positive = side to move is better
+     */
+    int evaluate(PlayGame game);
+
+    /**
+     * Gets game ready to be scored, called by Search once when it is made for game, before any evaluate
+     * Evaluators whose score the game keeps up to date move by move start it here, evaluate never does
+     * 
+     * @param game              PlayGame, game that will be searched
+     * @return                  void
+     */
+    default void prepare(PlayGame game) {
+    }
+}
@@ -0,0 +1,359 @@
+package src;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Description: compact binary archive of games. The file is memory-mapped and indexed when opened, so any game can
+ * be read directly with seek, and games are read like a text file through GameSource.
+ *
+ * File layout: "MSGA", a version byte, then per game an int record length followed by the record
+ * Record layout:
+ *      int             occupied squares, bit (row * 5 + col) per square
+ *      byte            piece code of each occupied square, in square order
+ *      byte            number of upper's captures, then the piece code of each capture in hand order
+ *      byte            number of lower's captures, then the piece code of each capture in hand order
+ *      short           packed move (see Move) of each move, to the end of the record
+ * Piece code: bits 0-2 = kind, bit 3 = upper's piece, bit 4 = promoted
+ */
+
+public class GameArchive implements GameSource {
+
+    private static final byte[] MAGIC = {'M', 'S', 'G', 'A'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+    private static final long WINDOW = 1 << 26;     // bytes mapped at a time, a record never spans two windows
+    private static final int UPPER_CODE = 1 << 3;
+    private static final int PROMOTED_CODE = 1 << 4;
+
+    private FileChannel channel;
+    private long fileSize;
+    private long windowStart;           // file offset of window's first byte
+    private MappedByteBuffer window;
+    private long[] offsets;             // offsets[n] = file offset of game n's record length
+    private int numGames;
+    private int nextGame;               // game read by the next nextGame call
+    private int nextMove;               // index in window of the current game's next move
+    private int movesEnd;               // index in window just past the current game's last move
+    private int lastMove;
+
+    public GameArchive(String path) throws IOException {
+        if (!isArchive(path)) {
+            throw new IOException(path + " is not a game archive");
+        }
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        fileSize = channel.size();
+
+        // index the records by hopping over their lengths
+        offsets = new long[64];
+        long offset = HEADER_SIZE;
+        while (offset < fileSize) {
+            if (numGames == offsets.length) {
+                offsets = Arrays.copyOf(offsets, numGames * 2);
+            }
+            offsets[numGames++] = offset;
+            int length;
+            try {
+                length = recordLength(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw new IOException(path + ": " + e.getMessage());
+            }
+            offset += 4 + length;
+        }
+    }
+
+    /**
+     * Reads the length of the record at offset, checking the record lies inside the file
+     *
+     * @param offset            long, file offset of the record's length
+     * @return                  int, record length in bytes, not counting the length itself
+     */
+    private int recordLength(long offset) throws IOException {
+        if (offset + 4 > fileSize) {
+            throw corrupt(offset, "ends inside its length");
+        }
+        int length = map(offset, 4).getInt((int) (offset - windowStart));
+        if (length < 0 || offset + 4 + length > fileSize) {
+            throw corrupt(offset, "has length " + length + " but only " + (fileSize - offset - 4) + " bytes follow");
+        }
+        return length;
+    }
+
+    /**
+     * Checks if a file starts with the archive header
+     *
+     * @param path              String, path of file
+     * @return                  boolean, true = binary game archive, false = anything else (like a text game file)
+     */
+    public static boolean isArchive(String path) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            return in.readNBytes(header, 0, HEADER_SIZE) == HEADER_SIZE
+                    && Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC) && header[MAGIC.length] == VERSION;
+        }
+    }
+
+    /**
+     * Makes sure the window holds length bytes at offset, mapping a new window there if it does not
+     *
+     * @param offset            long, file offset
+     * @param length            int, number of bytes needed
+     * @return                  MappedByteBuffer, the window
+     */
+    private MappedByteBuffer map(long offset, int length) throws IOException {
+        if (window == null || offset < windowStart || offset + length > windowStart + window.limit()) {
+            windowStart = offset;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(Math.max(WINDOW, length), fileSize - offset));
+        }
+        return window;
+    }
+
+    public int size() {
+        return numGames;
+    }
+
+    /**
+     * Moves to game n, the next nextGame call reads it
+     *
+     * @param n                 int, game index from 0
+     * @return                  void
+     */
+    public void seek(int n) {
+        if (n < 0 || n > numGames) {
+            throw new IndexOutOfBoundsException("game " + n + " of " + numGames);
+        }
+        nextGame = n;
+        movesEnd = nextMove;
+    }
+
+    public PlayGame nextGame() throws IOException {
+        if (nextGame == numGames) {
+            return null;
+        }
+        long offset = offsets[nextGame++];
+        int length = recordLength(offset);
+        map(offset, 4 + length);
+        int i = (int) (offset - windowStart) + 4;
+        int end = i + length;
+
+        // every read below stays inside the record, anything that does not fit the layout is a corrupt archive
+        PlayGame game = new PlayGame(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        checkFits(offset, i, 4, end);
+        int occupied = window.getInt(i);
+        if ((occupied & ~Board.ALL_SQUARES) != 0) {
+            throw corrupt(offset, "occupies squares off the board");
+        }
+        i += 4;
+        checkFits(offset, i, Integer.bitCount(occupied), end);
+        for (; occupied != 0; occupied &= occupied - 1) {
+            int sq = Integer.numberOfTrailingZeros(occupied);
+            Piece p = makePiece(offset, window.get(i++), Board.rowOf(sq), Board.colOf(sq));
+            game.getBoard().setPiece(p, Board.rowOf(sq), Board.colOf(sq));
+            game.getPlayer(p.getSide()).addMyPieces(p);
+        }
+        for (int side = Player.UPPER_SIDE; side >= Player.LOWER_SIDE; side--) {
+            checkFits(offset, i, 1, end);
+            int count = window.get(i++) & 0xFF;
+            checkFits(offset, i, count, end);
+            for (int c = 0; c < count; c++) {
+                try {
+                    game.getPlayer(side).addToHand(makePiece(offset, window.get(i++), 0, 0).getType());
+                } catch (IllegalStateException e) {
+                    throw corrupt(offset, e.getMessage());
+                }
+            }
+        }
+        if ((end - i) % 2 != 0) {
+            throw corrupt(offset, "ends inside a move");
+        }
+        nextMove = i;
+        movesEnd = end;
+        return game;
+    }
+
+    /**
+     * Checks the next bytes of a record are inside it
+     *
+     * @param offset            long, file offset of the game's record, for the error
+     * @param i                 int, index in window of the first byte
+     * @param bytes             int, number of bytes to be read from i
+     * @param end               int, index in window just past the record
+     * @return                  void
+     */
+    private static void checkFits(long offset, int i, int bytes, int end) throws IOException {
+        if (i + bytes > end) {
+            throw corrupt(offset, "runs past the end of its record");
+        }
+    }
+
+    private static IOException corrupt(long offset, String reason) {
+        return new IOException("corrupt archive, game at offset " + offset + " " + reason);
+    }
+
+    /**
+     * Makes a piece from its code, refusing codes no piece has
+     *
+     * @param offset            long, file offset of the game's record, for the error
+     * @param code              byte, piece code
+     * @param row               int, piece's starting y coordinate
+     * @param col               int, piece's starting x coordinate
+     * @return                  Piece, new piece
+     */
+    private static Piece makePiece(long offset, byte code, int row, int col) throws IOException {
+        int kind = code & 7;
+        if ((code & ~(7 | UPPER_CODE | PROMOTED_CODE)) != 0 || kind >= Piece.NUM_KINDS) {
+            throw corrupt(offset, "has bad piece code " + (code & 0xFF));
+        }
+        char letter = Piece.KIND_LETTERS.charAt(kind);
+        try {
+            return GameReader.makePiece((code & UPPER_CODE) != 0 ? Character.toUpperCase(letter) : letter,
+                    (code & PROMOTED_CODE) != 0, row, col);
+        } catch (IllegalArgumentException e) {
+            // a promoted king or gold general
+            throw corrupt(offset, "has bad piece code " + (code & 0xFF));
+        }
+    }
+
+    private static byte pieceCode(PieceType type) {
+        return (byte) (type.getKind() | (type.getSide() == Player.UPPER_SIDE ? UPPER_CODE : 0)
+                | (type.isPromoted() ? PROMOTED_CODE : 0));
+    }
+
+    public int nextMove() {
+        if (nextMove >= movesEnd) {
+            return END;
+        }
+        lastMove = window.getShort(nextMove) & 0xFFFF;
+        nextMove += 2;
+        return lastMove;
+    }
+
+    public String getMoveLine() {
+        return Move.toString(lastMove);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Appends a game's record to out
+     *
+     * @param game              PlayGame, game with the pieces and captures to record
+     * @param moves             MoveBuffer, packed moves to record
+     * @param out               ByteBuffer, where to write, must have room for the record
+     * @return                  void
+     */
+    static void encode(PlayGame game, MoveBuffer moves, ByteBuffer out) {
+        Board board = game.getBoard();
+        out.putInt(board.getOccupiedMask());
+        for (int occupied = board.getOccupiedMask(); occupied != 0; occupied &= occupied - 1) {
+            int sq = Integer.numberOfTrailingZeros(occupied);
+            out.put(pieceCode(board.getPiece(Board.rowOf(sq), Board.colOf(sq)).getType()));
+        }
+        for (int side = Player.UPPER_SIDE; side >= Player.LOWER_SIDE; side--) {
+            Player hand = game.getPlayer(side);
+            if (hand.handSize() > 255) {
+                throw new IllegalArgumentException("More than 255 captured pieces");
+            }
+            out.put((byte) hand.handSize());
+            for (int i = 0; i < hand.handSize(); i++) {
+                out.put(pieceCode(hand.getHandPiece(i)));
+            }
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            out.putShort((short) moves.get(i));
+        }
+    }
+
+    /**
+     * Converts a text game file (one or many games) to an archive
+     *
+     * @param textPath          String, path of text game file
+     * @param archivePath       String, path of archive to write
+     * @return                  int, number of games written
+     */
+    public static int pack(String textPath, String archivePath) throws IOException {
+        int games = 0;
+        MoveBuffer moves = new MoveBuffer();
+        ByteBuffer record = ByteBuffer.allocate(1024);
+        try (GameReader reader = new GameReader(textPath);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archivePath)))) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            for (PlayGame game = reader.nextGame(); game != null; game = reader.nextGame()) {
+                moves.clear();
+                for (int move = reader.nextMove(); move != END; move = reader.nextMove()) {
+                    moves.add(move);
+                }
+                // pieces and both hands take at most 4 + 25 + 2 + 255 * 2 bytes
+                int size = 4 + 25 + 2 + 2 * 255 + 2 * moves.size();
+                if (record.capacity() < size) {
+                    record = ByteBuffer.allocate(size);
+                }
+                record.clear();
+                encode(game, moves, record);
+                out.writeInt(record.position());
+                out.write(record.array(), 0, record.position());
+                games++;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Converts an archive to a text game file, games are separated by a blank line
+     *
+     * @param archivePath       String, path of archive
+     * @param textPath          String, path of text game file to write
+     * @return                  int, number of games written
+     */
+    public static int unpack(String archivePath, String textPath) throws IOException {
+        int games = 0;
+        StringBuilder sb = new StringBuilder();
+        try (GameArchive archive = new GameArchive(archivePath);
+                BufferedWriter out = new BufferedWriter(new FileWriter(textPath))) {
+            for (PlayGame game = archive.nextGame(); game != null; game = archive.nextGame()) {
+                sb.setLength(0);
+                Board board = game.getBoard();
+                for (int occupied = board.getOccupiedMask(); occupied != 0; occupied &= occupied - 1) {
+                    int sq = Integer.numberOfTrailingZeros(occupied);
+                    sb.append(board.getPiece(Board.rowOf(sq), Board.colOf(sq)).getName()).append(' ')
+                            .append((char) ('a' + Board.colOf(sq))).append(5 - Board.rowOf(sq)).append('\n');
+                }
+                sb.append('\n');
+                for (int side = Player.UPPER_SIDE; side >= Player.LOWER_SIDE; side--) {
+                    sb.append('[');
+                    Player hand = game.getPlayer(side);
+                    for (int i = 0; i < hand.handSize(); i++) {
+                        sb.append(i == 0 ? "" : " ").append(hand.getHandPiece(i).getName());
+                    }
+                    sb.append("]\n");
+                }
+                sb.append('\n');
+                for (int move = archive.nextMove(); move != END; move = archive.nextMove()) {
+                    Move.appendTo(sb, move).append('\n');
+                }
+                sb.append('\n');
+                out.append(sb);
+                games++;
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,129 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.Stream;
+
+/*
+ * Description: command line client of GameServer. It plays a game interactively like -i, sending each move typed
+ * to the server and printing the state it answers with, or follows a game by printing its event stream.
+ */
+
+public class GameClient {
+
+    private final HttpClient client;
+    private final String url;
+
+    /**
+     * @param url               String, server address like "http://localhost:8080"
+     */
+    public GameClient(String url) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        // the server speaks HTTP/1.1, asking every request to upgrade to HTTP/2 only slows it down
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Creates a game on the server
+     *
+     * @param sfen              String, starting position in Sfen notation, null or "" = the starting board
+     * @return                  HttpResponse<String>, server's answer, its body starts with "game <id>"
+     */
+    public HttpResponse<String> create(String sfen) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(url + "/games"))
+                .POST(HttpRequest.BodyPublishers.ofString(sfen == null ? "" : sfen)));
+    }
+
+    public HttpResponse<String> state(String id) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(url + "/games/" + id)).GET());
+    }
+
+    public HttpResponse<String> move(String id, String move) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(url + "/games/" + id + "/moves"))
+                .POST(HttpRequest.BodyPublishers.ofString(move)));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Gets the PlayGame gameState the server sent with a response
+     *
+     * @param response          HttpResponse<String>, server's answer
+     * @return                  int, gameState, 0 if the response has none (like an error)
+     */
+    public static int gameState(HttpResponse<String> response) {
+        return Integer.parseInt(response.headers().firstValue("Game-State").orElse("0"));
+    }
+
+    /**
+     * Gets the game id from a response body starting with "game <id>"
+     *
+     * @param response          HttpResponse<String>, server's answer to create or state
+     * @return                  String, game id
+     */
+    public static String gameId(HttpResponse<String> response) {
+        String body = response.body();
+        if (!body.startsWith("game ")) {
+            throw new IllegalStateException("Server did not create a game: " + body.trim());
+        }
+        return body.substring(5, body.indexOf('\n'));
+    }
+
+    /**
+     * Plays a game with moves typed on stdin, a new game when id is null, until the game ends or stdin does
+     *
+     * @param id                String, game to join or null for a new game
+     * @return                  void
+     */
+    public void play(String id) throws IOException, InterruptedException {
+        HttpResponse<String> response = id == null ? create(null) : state(id);
+        if (response.statusCode() >= 400) {
+            System.out.print(response.body());
+            return;
+        }
+        id = gameId(response);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        System.out.print(response.body());
+        while (gameState(response) <= 0) {
+            String move = in.readLine();
+            if (move == null) {
+                return;
+            }
+            response = move(id, move);
+            System.out.print(response.body());
+        }
+    }
+
+    /**
+     * Prints a game's event stream until the server closes it (when the game ends or its session is dropped)
+     *
+     * @param id                String, game to follow
+     * @return                  void
+     */
+    public void watch(String id) throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder(URI.create(url + "/games/" + id + "/events")).GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() >= 400) {
+            response.body().forEach(System.out::println);
+            return;
+        }
+        // print each event's data lines as the state they carry
+        try (Stream<String> lines = response.body()) {
+            lines.forEach(line -> {
+                if (line.startsWith("data: ")) {
+                    System.out.println(line.substring(6));
+                } else if (line.isEmpty()) {
+                    System.out.println();
+                }
+            });
+        }
+    }
+}
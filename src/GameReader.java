@@ -0,0 +1,227 @@
+package src;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/*
+ * Description: streaming reader of game files. The file is memory-mapped a window at a time and read in place:
+ * a game's pieces and captures go straight onto a new PlayGame and its moves come back one packed move at a time,
+ * so memory use does not grow with the file. A file may hold many games one after another, each game's moves
+ * ending at a blank line (or the end of the file).
+ *
+ * Game layout (the Utils.TestCase format):
+ *      piece lines like "N a5" or "+p c3", then a blank line
+ *      upper's captures like "[g p]", lower's captures like "[]", a blank line
+ *      move lines like "move a1 a2", "move a1 a2 promote" or "drop g c3"
+ */
+
+public class GameReader implements GameSource {
+
+    private static final long WINDOW = 1 << 26;      // bytes mapped at a time, lines never span two windows
+
+    /*
+     * The current line, read in place from the mapped window
+     */
+    private class Line implements CharSequence {
+        int start;
+        int length;
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return (char) (window.get(start + index) & 0xFF);
+        }
+
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        public String toString() {
+            byte[] bytes = new byte[length];
+            window.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private FileChannel channel;
+    private long fileSize;
+    private long windowStart;           // file offset of window's first byte
+    private MappedByteBuffer window;
+    private int next;                   // index in window of the first byte not read yet
+    private Line line;
+    private boolean inMoves;            // true = the current game's moves are not all read yet
+
+    public GameReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        fileSize = channel.size();
+        line = new Line();
+        map(0);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, fileSize - start));
+        next = 0;
+    }
+
+    /**
+     * Reads the next line into line without its line separator and surrounding spaces
+     *
+     * @return                  boolean, true = a line was read, false = end of file
+     */
+    private boolean nextLine() throws IOException {
+        if (windowStart + next >= fileSize) {
+            return false;
+        }
+        int end = next;
+        while (true) {
+            if (end == window.limit()) {
+                if (windowStart + end == fileSize) {
+                    break;
+                }
+                if (next == 0) {
+                    throw new IOException("line longer than " + WINDOW + " bytes");
+                }
+                // line runs past the window, map again starting at the line
+                end -= next;
+                map(windowStart + next);
+            } else if (window.get(end) == '\n') {
+                break;
+            } else {
+                end++;
+            }
+        }
+
+        int start = next;
+        next = end < window.limit() ? end + 1 : end;
+        while (start < end && window.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && window.get(end - 1) <= ' ') {
+            end--;
+        }
+        line.start = start;
+        line.length = end - start;
+        return true;
+    }
+
+    /**
+     * Reads the pieces and captures of the next game, skipping any moves of the current game not read yet
+     *
+     * @return                  PlayGame, next game with lower player to move, or null at the end of the file
+     */
+    public PlayGame nextGame() throws IOException {
+        while (inMoves) {
+            nextMove();
+        }
+        // skip blank lines between games
+        do {
+            if (!nextLine()) {
+                return null;
+            }
+        } while (line.length == 0);
+
+        PlayGame game = new PlayGame(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Board board = game.getBoard();
+        while (line.length != 0) {
+            // "[+]X sq"
+            int promoted = line.charAt(0) == '+' ? 1 : 0;
+            int square = line.length == promoted + 4 && line.charAt(promoted + 1) == ' '
+                    ? Move.parseSquare(line, promoted + 2) : -1;
+            if (square < 0) {
+                throw new IllegalArgumentException("Bad piece line: " + line);
+            }
+            Piece p = makePiece(line.charAt(promoted), promoted == 1, Board.rowOf(square), Board.colOf(square));
+            board.setPiece(p, Board.rowOf(square), Board.colOf(square));
+            game.getPlayer(p.getSide()).addMyPieces(p);
+            if (!nextLine()) {
+                throw new IllegalArgumentException("Game ends before its captures");
+            }
+        }
+
+        readCaptures(game.getPlayer(Player.UPPER_SIDE));
+        readCaptures(game.getPlayer(Player.LOWER_SIDE));
+        // blank line before the moves
+        inMoves = nextLine();
+        return game;
+    }
+
+    /**
+     * Reads a capture list line like "[g P]" into hand, each piece's owner comes from its letter's case
+     *
+     * @param hand              Player, player holding the captured pieces
+     * @return                  void
+     */
+    private void readCaptures(Player hand) throws IOException {
+        if (!nextLine() || line.length < 2 || line.charAt(0) != '[' || line.charAt(line.length - 1) != ']') {
+            throw new IllegalArgumentException("Bad capture line: " + line);
+        }
+        int i = 1;
+        int end = line.length - 1;
+        while (i < end) {
+            if (line.charAt(i) == ' ') {
+                i++;
+                continue;
+            }
+            boolean promoted = line.charAt(i) == '+';
+            if (promoted) {
+                i++;
+            }
+            hand.addToHand(makePiece(line.charAt(i), promoted, 0, 0).getType());
+            i++;
+        }
+    }
+
+    /**
+     * Makes a piece from its letter, the letter's case gives its owner
+     *
+     * @param letter            char, piece letter like 'n' or 'N'
+     * @param promoted          boolean, true = promote the new piece
+     * @param row               int, piece's starting y coordinate
+     * @param col               int, piece's starting x coordinate
+     * @return                  Piece, new piece
+     */
+    static Piece makePiece(char letter, boolean promoted, int row, int col) {
+        int side = letter >= 'A' && letter <= 'Z' ? Player.UPPER_SIDE : Player.LOWER_SIDE;
+        int kind = Piece.KIND_LETTERS.indexOf(Character.toLowerCase(letter));
+        Piece p = kind < 0 ? null : Board.newPiece(kind, side, row, col);
+        if (p == null || (promoted && !p.promote(row, col))) {
+            throw new IllegalArgumentException("Bad piece: " + (promoted ? "+" : "") + letter);
+        }
+        return p;
+    }
+
+    /**
+     * Reads the current game's next move
+     *
+     * @return                  int, packed move, Move.NONE if the line is not a well formed move, END after the
+     *                          game's last move
+     */
+    public int nextMove() throws IOException {
+        if (!inMoves || !nextLine() || line.length == 0) {
+            inMoves = false;
+            return END;
+        }
+        return Move.parse(line);
+    }
+
+    /**
+     * Gets the line of the last move read, as written in the file
+     *
+     * @return                  String, move line
+     */
+    public String getMoveLine() {
+        return line.toString();
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,348 @@
+package src;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Description: hosts many games at once over HTTP. Each game is a session holding its own PlayGame, refereed
+ * exactly like file mode, and every response is the game state file mode would print after the move.
+ *
+ *      POST   /games                   new game from the starting board, or from a Sfen position sent as the body
+ *                                      (400 if the position is invalid or its game is already over)
+ *      GET    /games/<id>              game state
+ *      POST   /games/<id>/moves        play the move sent as the body, like "move a2 a3" or "drop p c3"
+ *      GET    /games/<id>/events       server-sent events stream, one "state" event now and after every move
+ *      DELETE /games/<id>              end the session
+ *
+ * Responses are text/plain: "game <id>", "sfen <position>", then the game state. The Game-State header holds
+ * the PlayGame gameState. Each game is kept as a CompactState and unpacked only while a request uses it.
+ * Sessions idle for too long are dropped, and the number of sessions and of event streams per session are capped
+ * so memory stays bounded.
+ *
+ * The tree is built for Java 17, which has no virtual threads, so there requests always run on the fixed pool of
+ * handler threads given to start and a slow request holds one of them until it is answered. The default cap of
+ * 100000 sessions only follows from the size of a packed session: hosting that many games, or serving that many
+ * clients at once, has not been measured. test.ServerSmoke only checks a few hundred games from eight clients.
+ */
+
+public class GameServer {
+
+    /*
+     * One hosted game, kept packed between requests so a session is a couple hundred bytes instead of a few
+     * kilobytes, every access to state holds the session's lock
+     */
+    private static class Session {
+        final String id;
+        CompactState state;
+        final List<HttpExchange> listeners;     // open event streams
+        volatile long lastUsed;                 // System.nanoTime of the last request
+
+        Session(String id, CompactState state) {
+            this.id = id;
+            this.state = state;
+            listeners = new ArrayList<>(0);
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_LISTENERS = 8;         // event streams per session
+    private static final int MAX_BODY = 256;            // bytes, a Sfen position or a move is far shorter
+
+    private final ConcurrentHashMap<String, Session> sessions;
+    private final AtomicInteger numSessions;
+    private final int maxSessions;
+    private final long idleNanos;
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * @param maxSessions       int, most games hosted at once, new games are refused past it
+     * @param idleMinutes       int, a session with no request for this long is dropped
+     */
+    public GameServer(int maxSessions, int idleMinutes) {
+        if (maxSessions < 1 || idleMinutes < 1) {
+            throw new IllegalArgumentException("max sessions and idle minutes must be at least 1");
+        }
+        this.maxSessions = maxSessions;
+        idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        sessions = new ConcurrentHashMap<>();
+        numSessions = new AtomicInteger();
+    }
+
+    /**
+     * Starts serving on port, requests are handled on virtual threads when the JVM has them (Java 21 and later)
+     * and on a pool of threads otherwise, which is always the case on Java 17
+     *
+     * @param port              int, port to listen on, 0 = any free port
+     * @param threads           int, size of the thread pool if there are no virtual threads
+     * @return                  int, port listened on
+     */
+    public int start(int port, int threads) throws IOException {
+        // headers and body go out as separate small writes, without TCP_NODELAY each response waits on a delayed ack
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        handlers = newHandlerPool(threads);
+        server.setExecutor(handlers);
+        server.createContext("/games", this::handle);
+        server.start();
+
+        sweeper = Executors.newSingleThreadScheduledExecutor();
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(idleNanos) / 4);
+        sweeper.scheduleAtFixedRate(this::dropIdle, period, period, TimeUnit.SECONDS);
+        return server.getAddress().getPort();
+    }
+
+    private static ExecutorService newHandlerPool(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    public void stop() {
+        server.stop(0);
+        sweeper.shutdownNow();
+        handlers.shutdownNow();
+        for (Session session : sessions.values()) {
+            closeListeners(session);
+        }
+        sessions.clear();
+    }
+
+    public int getNumSessions() {
+        return numSessions.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            // "/games" or "/games/<id>" or "/games/<id>/<action>"
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            if (parts.length == 2 && method.equals("POST")) {
+                create(exchange);
+                return;
+            }
+            Session session = parts.length >= 3 ? sessions.get(parts[2]) : null;
+            if (session == null) {
+                reply(exchange, 404, "No such game.\n");
+                return;
+            }
+            session.lastUsed = System.nanoTime();
+            if (parts.length == 3 && method.equals("GET")) {
+                replyState(exchange, 200, session);
+            } else if (parts.length == 3 && method.equals("DELETE")) {
+                drop(session);
+                reply(exchange, 200, "Game ended.\n");
+            } else if (parts.length == 4 && parts[3].equals("moves") && method.equals("POST")) {
+                move(exchange, session);
+            } else if (parts.length == 4 && parts[3].equals("events") && method.equals("GET")) {
+                listen(exchange, session);
+            } else {
+                reply(exchange, 405, "Unsupported request.\n");
+            }
+        } catch (Exception e) {
+            reply(exchange, 500, e.toString() + "\n");
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        String body = readBody(exchange);
+        if (body == null) {
+            reply(exchange, 413, "Position too long.\n");
+            return;
+        }
+        // Sfen.parse refuses positions no game can reach and referees check, a game must also still be playable
+        // and fit in a CompactState before it is hosted
+        CompactState state;
+        try {
+            PlayGame game = body.isEmpty() ? new PlayGame() : Sfen.parse(body);
+            if (game.getGameState() > 0) {
+                throw new IllegalArgumentException("Game is already over.");
+            }
+            state = game.toCompactState();
+        } catch (IllegalArgumentException e) {
+            reply(exchange, 400, e.getMessage() + "\n");
+            return;
+        }
+
+        if (numSessions.incrementAndGet() > maxSessions) {
+            numSessions.decrementAndGet();
+            reply(exchange, 503, "Too many games.\n");
+            return;
+        }
+        Session session;
+        do {
+            session = new Session(Long.toHexString(ThreadLocalRandom.current().nextLong()), state);
+        } while (sessions.putIfAbsent(session.id, session) != null);
+
+        exchange.getResponseHeaders().set("Location", "/games/" + session.id);
+        replyState(exchange, 201, session);
+    }
+
+    private void move(HttpExchange exchange, Session session) throws IOException {
+        String move = readBody(exchange);
+        if (move == null) {
+            reply(exchange, 413, "Move too long.\n");
+            return;
+        }
+        int status = 200;
+        String state;
+        int gameState;
+        synchronized (session) {
+            PlayGame game = session.state.toGame();
+            if (game.getGameState() > 0) {
+                status = 409;
+            } else {
+                // a malformed or illegal move ends the game like it does in file mode
+                Main.refereeMove(game, move);
+                session.state = game.toCompactState();
+            }
+            state = render(session.id, game);
+            gameState = game.getGameState();
+            if (status == 200) {
+                publish(session, state, gameState);
+            }
+        }
+        exchange.getResponseHeaders().set("Game-State", Integer.toString(gameState));
+        reply(exchange, status, state);
+    }
+
+    /**
+     * Opens an event stream on exchange, left open after the handler returns and written to by later moves
+     */
+    private void listen(HttpExchange exchange, Session session) throws IOException {
+        synchronized (session) {
+            if (session.listeners.size() == MAX_LISTENERS) {
+                reply(exchange, 429, "Too many event streams for this game.\n");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            session.listeners.add(exchange);
+            PlayGame game = session.state.toGame();
+            publish(session, render(session.id, game), game.getGameState());
+        }
+    }
+
+    /**
+     * Sends a state event to every event stream of session, dropping streams that fail, and closes them all once
+     * the game is over. Called holding the session's lock so events arrive in move order.
+     */
+    private void publish(Session session, String state, int gameState) {
+        if (session.listeners.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(state.length() + 64).append("event: state\n");
+        int start = 0;
+        for (int end = state.indexOf('\n'); end >= 0; end = state.indexOf('\n', start)) {
+            sb.append("data: ").append(state, start, end).append('\n');
+            start = end + 1;
+        }
+        byte[] event = sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+
+        for (int i = session.listeners.size() - 1; i >= 0; i--) {
+            HttpExchange listener = session.listeners.get(i);
+            try {
+                OutputStream out = listener.getResponseBody();
+                out.write(event);
+                out.flush();
+            } catch (IOException e) {
+                session.listeners.remove(i);
+                listener.close();
+            }
+        }
+        if (gameState > 0) {
+            closeListeners(session);
+        }
+    }
+
+    private static void closeListeners(Session session) {
+        synchronized (session) {
+            for (HttpExchange listener : session.listeners) {
+                listener.close();
+            }
+            session.listeners.clear();
+        }
+    }
+
+    private void drop(Session session) {
+        if (sessions.remove(session.id, session)) {
+            numSessions.decrementAndGet();
+            closeListeners(session);
+        }
+    }
+
+    private void dropIdle() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (now - session.lastUsed > idleNanos) {
+                drop(session);
+            }
+        }
+    }
+
+    /**
+     * Renders a game like file mode prints a game after its last move, under an id and position header
+     *
+     * @param id                String, game id
+     * @param game              PlayGame, game to render
+     * @return                  String, "game <id>", "sfen <position>", board, captures and what the player to
+     *                          move is told
+     */
+    private static String render(String id, PlayGame game) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("game ").append(id).append('\n');
+        Sfen.append(game, sb.append("sfen ")).append('\n');
+        game.appendGameState(sb).append(Board.LINE_SEPARATOR);
+        return Main.appendStatus(game, sb).toString();
+    }
+
+    private static void replyState(HttpExchange exchange, int status, Session session) throws IOException {
+        PlayGame game;
+        synchronized (session) {
+            game = session.state.toGame();
+        }
+        exchange.getResponseHeaders().set("Game-State", Integer.toString(game.getGameState()));
+        reply(exchange, status, render(session.id, game));
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a short request body
+     *
+     * @return                  String, body without surrounding spaces, null if longer than MAX_BODY bytes
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            return bytes.length > MAX_BODY ? null : new String(bytes, StandardCharsets.UTF_8).trim();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package src;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * Description: a file of games read one game at a time, first a game's pieces and captures then its moves one by
+ * one. Implemented by GameReader for text files and GameArchive for binary archives.
+ */
+
+public interface GameSource extends Closeable {
+
+    int END = -1;       // nextMove result after a game's last move
+
+    /**
+     * Reads the pieces and captures of the next game, skipping any moves of the current game not read yet
+     *
+     * @return                  PlayGame, next game with lower player to move, or null after the last game
+     */
+    PlayGame nextGame() throws IOException;
+
+    /**
+     * Reads the current game's next move
+     *
+     * @return                  int, packed move, Move.NONE if the move is not well formed, END after the game's
+     *                          last move
+     */
+    int nextMove() throws IOException;
+
+    /**
+     * Gets the last move read as it would be written in a text game file
+     *
+     * @return                  String, move line
+     */
+    String getMoveLine();
+
+    /**
+     * Opens a game file, binary archives are told apart from text files by their header
+     *
+     * @param path              String, path of text game file or GameArchive
+     * @return                  GameSource, reader positioned before the first game
+     */
+    static GameSource open(String path) throws IOException {
+        return GameArchive.isArchive(path) ? new GameArchive(path) : new GameReader(path);
+    }
+}
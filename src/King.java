@@ -1,34 +1,18 @@
 package src;
-import java.util.*;
 
 public class King extends Piece {
 
     int[] currPos;      // keep track of king's current location
 
-    public King(String name, String owner, int currY, int currX) {
-        super(name, owner, currY, currX);
+    public King(int side, int currY, int currX) {
+        super(side, currY, currX);
         currPos = new int[] {currY, currX};
     }
 
-    /**
-     * Generate all possible moves for king based on start(y, x)
-     * King can move 1 square in any direction
-     * 
-     * @param startY            int, piece's starting y coordinate
-     * @param startX            int, piece's starting x coordinate
-     * @return                  void
-     */
-    public Set<String> getMoves(int startY, int startX) {
-        // do not need to check owner, movement is the same regardless
-        Set<String> m = new HashSet<>();
-        int[][] addOns = {{0, 1}, {0, -1}, {1, 0}, {1, 1}, {1, -1}, {-1, 0}, {-1, 1}, {-1, -1}};
-        
-        for (int[] addOn : addOns) {
-            m.add("(" + (startY + addOn[0]) + ", " + (startX + addOn[1]) + ")");
-        }
-        return m;
+    public int getKind() {
+        return KING;
     }
-    
+
     public int[] getCurrPos() {
         return currPos;
     }
@@ -37,6 +21,12 @@ public class King extends Piece {
         currPos = new int[] {newY, newX};
     }
 
+    public Piece copy() {
+        King k = (King) super.copy();
+        k.setCurrPos(currPos[0], currPos[1]);
+        return k;
+    }
+
     public boolean promote(int startY, int startX) {
         // king cannot promote
         return false;
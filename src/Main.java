@@ -1,25 +1,28 @@
 package src;
 
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
     public static void main(String[] args) {
-        args = new String[]{"-i"};
         if (args.length == 1 && args[0].equals("-i")) {
             // play shogi in interactive move
             PlayGame g = new PlayGame();
+            Scanner scanner = new Scanner(System.in);
             while (g.getGameState() <= 0) {
                 // print current game state 
                 System.out.print(g.gameStateToString());
                 System.out.print(g.getCurrPlayer().getType() + ">");
 
                 // get user's next move + move Piece
-                Scanner scanner = new Scanner(System.in);
                 String move = scanner.nextLine();
 
                 // check player if player got out of check or not
                 if (g.getGameState() == -1 ) {
-                    if (g.getCurrPlayer().getAllMoves().contains(move)) {
+                    if (g.getCurrPlayer().getAllMoves().contains(Move.parse(move))) {
                         // player got out of check
                         g.getCurrPlayer().getAllMoves().clear();
                         g.setGameState(0);
@@ -41,8 +44,7 @@ public class Main {
                         // player is in check so print all possible moves
                         System.out.println(g.getCurrPlayer().getType() + " player is in check!");
                         System.out.println("Available moves:");
-                        Collections.sort(g.getCurrPlayer().getAllMoves());
-                        for (String possibleMove : g.getCurrPlayer().getAllMoves()) {
+                        for (String possibleMove : g.getCurrPlayer().allMovesToStrings()) {
                             System.out.println(possibleMove);
                         }
                     } else {
@@ -52,7 +54,7 @@ public class Main {
                 }
                 
                 // game reached num of moves limit so it ends in a tie
-                if (g.getGameState() == 0 && g.getNumMoves() == 400) {
+                if (g.getGameState() == 0 && g.getNumMoves() >= PlayGame.MOVE_LIMIT) {
                     g.setGameState(3);
                     break;
                 }
@@ -69,91 +71,436 @@ public class Main {
         } else if (args.length == 2 && args[0].equals("-f")) {
             try {
                 // play game for file mode
-                Utils.TestCase test = Utils.parseTestCase(args[1]);
-                PlayGame g = new PlayGame(test.initialPieces, test.upperCaptures, test.lowerCaptures);
-                String lastMove = "";
-                for (String move : test.moves) {
-                    lastMove = move;
-                    
-                    // check player if player got out of check or not
-                    if (g.getGameState() == -1 ) {
-                        if (g.getCurrPlayer().getAllMoves().contains(move)) {
-                            // player got out of check
-                            g.getCurrPlayer().getAllMoves().clear();
-                            g.setGameState(0);
-                        } else {
-                            // player did not get out of check so illegal move
-                            g.setGameState(2);
-                        }
-                    }
-                    
-                    // get user's next move + move Piece
-                    g.interpretMove(move);
-
-                    // numMoves goes up +1 and switch to other player's turn
-                    g.addNumMoves();
-                    g.switchCurrPlayer();
-
-                    // player is in check or checkmate
-                    if (g.getGameState() == -1) {
-                        if (g.getCurrPlayer().getAllMoves().isEmpty()) {
-                            // player in checkmate
-                            g.setGameState(1);
-                        }
+                playFile(args[1], System.out);
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 2 && args.length <= 6 && args[0].equals("-batch")) {
+            // play every game file of a directory or glob in file mode on a pool of threads
+            try {
+                int threads = Runtime.getRuntime().availableProcessors();
+                String outDir = null;
+                for (int i = 2; i < args.length; i++) {
+                    if (args[i].equals("-j") && i + 1 < args.length) {
+                        threads = Integer.parseInt(args[++i]);
+                    } else if (args[i].equals("-o") && i + 1 < args.length) {
+                        outDir = args[++i];
+                    } else {
+                        throw new IllegalArgumentException("unknown batch option " + args[i]);
                     }
-                    
-                    // game ties
-                    if (g.getGameState() == 0 && g.getNumMoves() == 400) {
-                        g.setGameState(3);
+                }
+                Batch.run(Batch.findFiles(args[1]), threads, outDir, System.out);
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 2 && args.length <= 5 && args[0].equals("-perft")) {
+            // count leaf nodes of the move tree from the default or file position, -j splits over threads
+            try {
+                int depth = Integer.parseInt(args[1]);
+                if (depth < 1) {
+                    throw new IllegalArgumentException("perft depth must be at least 1");
+                }
+                int threads = 1;
+                String path = null;
+                for (int i = 2; i < args.length; i++) {
+                    if (args[i].equals("-j") && i + 1 < args.length) {
+                        threads = Integer.parseInt(args[++i]);
+                    } else {
+                        path = args[i];
                     }
+                }
 
-                    if (g.getGameState() > 0) {
-                        break;
+                PlayGame g = loadGame(path);
+                if (threads > 1) {
+                    ForkJoinPool pool = new ForkJoinPool(threads);
+                    ParallelPerft.divide(g, depth, pool, System.out);
+                    pool.shutdown();
+                } else {
+                    new Perft(g).divide(depth, System.out);
+                }
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 1 && args.length <= 10 && args[0].equals("-engine")) {
+            // let the engine pick a move for the default or file position (after playing the file's moves)
+            try {
+                long millis = -1;
+                int depth = 0;
+                int hashMegabytes = 16;
+                int threads = 1;
+                String path = null;
+                for (int i = 1; i < args.length; i++) {
+                    if (args[i].equals("-t") && i + 1 < args.length) {
+                        millis = Long.parseLong(args[++i]);
+                    } else if (args[i].equals("-d") && i + 1 < args.length) {
+                        depth = Integer.parseInt(args[++i]);
+                    } else if (args[i].equals("-hash") && i + 1 < args.length) {
+                        hashMegabytes = Integer.parseInt(args[++i]);
+                    } else if (args[i].equals("-j") && i + 1 < args.length) {
+                        threads = Integer.parseInt(args[++i]);
+                    } else {
+                        path = args[i];
                     }
                 }
-                g.switchCurrPlayer();
 
-                // print game's current state after last file move
-                System.out.println(g.getCurrPlayer().getType() + " player action: " + lastMove);
-                System.out.print(g.gameStateToString());
-                System.out.println();
+                if (millis < 0) {
+                    // 50 ms per move unless only a depth was asked for
+                    millis = depth > 0 ? 0 : 50;
+                }
+                if (depth <= 0) {
+                    depth = Search.MAX_DEPTH;
+                }
 
-                g.switchCurrPlayer();
-                if (g.getGameState() == -1) {
-                    // player is in check so print all possible moves
-                    System.out.println(g.getCurrPlayer().getType() + " player is in check!");
-                    System.out.println("Available moves:");
-                    Collections.sort(g.getCurrPlayer().getAllMoves());
-                    for (String possibleMove : g.getCurrPlayer().getAllMoves()) {
-                        System.out.println(possibleMove);
-                    }
+                PlayGame g = path == null ? new PlayGame() : replayFile(path);
 
-                    // game is not over yet so go into interactive mode
-                    System.out.println(g.getCurrPlayer().getType() + ">");
-                } else if (g.getGameState() == 0) {
-                    // game is not over yet so go into interactive mode
-                    System.out.println(g.getCurrPlayer().getType() + ">");
-                } else if (g.getGameState() == 1) {
-                    // game ended over checkmate
-                    g.switchCurrPlayer();
-                    System.out.println(g.getCurrPlayer().getType() + " player wins.  " + "Checkmate.");
-                } else if (g.getGameState() == 2) {
-                    // gamed ended over illegal move
-                    System.out.print(g.getCurrPlayer().getType() + " player wins. ");
-                    System.out.println(" Illegal move.");
-                } else if (g.getGameState() == 3) {
-                    // gamed ended in a tie
-                    System.out.println("Tie game.  Too many moves.");
+                if (g.getGameState() > 0) {
+                    System.out.println("Game is over.");
+                } else {
+                    // allocate the table and threads before starting the clock, they do not count against the budget
+                    TranspositionTable table = hashMegabytes > 0 ? new TranspositionTable(hashMegabytes) : null;
+                    ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+                    long start = System.nanoTime();
+                    Search.Result result;
+                    if (pool != null) {
+                        // root moves split over threads, all sharing the one table
+                        result = ParallelSearch.search(g, depth, millis, pool, table);
+                    } else {
+                        result = new Search(g, new PieceSquareEvaluator(), table).search(depth, millis, 0);
+                    }
+                    long time = (System.nanoTime() - start) / 1_000_000;
+                    if (pool != null) {
+                        pool.shutdown();
+                    }
+                    String move = result.move == Move.NONE ? "none" : Move.toString(result.move);
+                    System.out.println(g.getCurrPlayer().getType() + " engine move: " + move);
+                    System.out.println("depth " + result.depth + " score " + result.score + " nodes " + result.nodes
+                            + " time " + time + " ms");
+                }
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 3 && args[0].equals("-mate")) {
+            // look for a forced mate by the player to move in each file (after playing the file's moves)
+            try {
+                int maxMoves = Integer.parseInt(args[1]);
+                if (maxMoves < 1) {
+                    throw new IllegalArgumentException("mate moves must be at least 1");
+                }
+                // one table for every puzzle, what it remembers about a position holds in any puzzle
+                TranspositionTable table = new TranspositionTable(16);
+                for (int i = 2; i < args.length; i++) {
+                    if (args.length > 3) {
+                        System.out.println(args[i] + ":");
+                    }
+                    try {
+                        solveMate(args[i], maxMoves, table);
+                    } catch (Exception e) {
+                        System.out.println(e.toString());
+                    }
+                }
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length == 3 && (args[0].equals("-pack") || args[0].equals("-unpack"))) {
+            // convert a text game file to a binary game archive or back
+            try {
+                long start = System.nanoTime();
+                int games = args[0].equals("-pack") ? GameArchive.pack(args[1], args[2]) 
+                        : GameArchive.unpack(args[1], args[2]);
+                System.out.println("Games: " + games);
+                System.out.println("Bytes: " + Files.size(Paths.get(args[1])) + " -> " 
+                        + Files.size(Paths.get(args[2])));
+                System.out.println("Time: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length == 2 && args[0].equals("-sfen")) {
+            // print the position of every game in a file after its moves, one Sfen line per game
+            try (GameSource reader = GameSource.open(args[1])) {
+                StringBuilder sb = new StringBuilder(64);
+                for (PlayGame g = firstGame(reader, args[1]); g != null; g = reader.nextGame()) {
+                    for (int move = reader.nextMove(); move != GameSource.END; move = reader.nextMove()) {
+                        refereeMove(g, move);
+                        if (g.getGameState() > 0) {
+                            break;
+                        }
+                    }
+                    sb.setLength(0);
+                    System.out.println(Sfen.append(g, sb));
+                }
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 1 && args.length <= 8 && args[0].equals("-server")) {
+            // host many games over HTTP until the process is stopped
+            try {
+                int port = GameServer.DEFAULT_PORT;
+                int maxSessions = 100_000;
+                int idleMinutes = 30;
+                int threads = 4 * Runtime.getRuntime().availableProcessors();
+                for (int i = 1; i < args.length; i++) {
+                    if (args[i].equals("-max") && i + 1 < args.length) {
+                        maxSessions = Integer.parseInt(args[++i]);
+                    } else if (args[i].equals("-idle") && i + 1 < args.length) {
+                        idleMinutes = Integer.parseInt(args[++i]);
+                    } else if (args[i].equals("-j") && i + 1 < args.length) {
+                        threads = Integer.parseInt(args[++i]);
+                    } else {
+                        port = Integer.parseInt(args[i]);
+                    }
+                }
+                GameServer server = new GameServer(maxSessions, idleMinutes);
+                System.out.println("Serving games on port " + server.start(port, threads));
+            } catch (Exception e) {
+                System.out.println(e.toString());
+            }
+        } else if (args.length >= 2 && args.length <= 4 && args[0].equals("-client")) {
+            // play a game on a server (a new one unless an id is given) or follow one with -watch
+            try {
+                GameClient client = new GameClient(args[1]);
+                boolean watch = args[args.length - 1].equals("-watch");
+                String id = args.length > (watch ? 3 : 2) ? args[2] : null;
+                if (watch && id == null) {
+                    throw new IllegalArgumentException("-watch needs a game id");
+                }
+                if (watch) {
+                    client.watch(id);
+                } else {
+                    client.play(id);
                 }
-
-                
             } catch (Exception e) {
                 System.out.println(e.toString());
             }
         } else {
-            System.out.println("Please specify input by -i or -f [file name]");
+            System.out.println("Please specify input by -i, -f [file name], -perft [depth] [file name] [-j threads], "
+                    + "-engine [file name] [-t millis] [-d depth] [-hash MB] [-j threads], -mate [moves] [file name ...] "
+                    + "-batch [dir or glob] [-j threads] [-o output dir], -pack [text file] [archive], "
+                    + "-unpack [archive] [text file], -sfen [file name], -server [port] [-max games] [-idle minutes] "
+                    + "[-j threads] or -client [url] [game id] [-watch]");
+        }
+    }
+
+    /**
+     * Plays a game file in file mode: referees its moves then prints the last move, the game state and how the game
+     * ended or who is to move
+     * 
+     * @param path              String, path of game file
+     * @param out               PrintStream, where to print
+     * @return                  int, gameState after the file's moves
+     */
+    static int playFile(String path, PrintStream out) throws Exception {
+        try (GameSource reader = GameSource.open(path)) {
+            PlayGame g = firstGame(reader, path);
+            int gameState = 0;
+            StringBuilder sb = new StringBuilder(256);
+            // a file may hold several games, each is played and printed in turn
+            for (; g != null; g = reader.nextGame()) {
+                gameState = playGame(reader, g, out, sb);
+            }
+            return gameState;
+        }
+    }
+
+    /**
+     * Plays the moves of one game as read from reader in file mode and prints the result like playFile, rendering
+     * its output in sb first so many games can share one StringBuilder
+     * 
+     * @param reader            GameSource, positioned on the game's moves
+     * @param g                 PlayGame, game set up by reader
+     * @param out               PrintStream, where to print
+     * @param sb                StringBuilder, cleared then used to render the game's output
+     * @return                  int, gameState after the game's moves
+     */
+    static int playGame(GameSource reader, PlayGame g, PrintStream out, StringBuilder sb) throws Exception {
+        int lastMove = GameSource.END;
+        for (int move = reader.nextMove(); move != GameSource.END; move = reader.nextMove()) {
+            lastMove = move;
+            
+            refereeMove(g, move);
+
+            if (g.getGameState() > 0) {
+                break;
+            }
+        }
+        g.switchCurrPlayer();
+
+        // print game's current state after last file move, a well formed move prints back exactly as it was written
+        // and a malformed one always ends the game so it is still the reader's current line
+        sb.setLength(0);
+        sb.append(g.getCurrPlayer().getType()).append(" player action: ");
+        if (lastMove == Move.NONE) {
+            sb.append(reader.getMoveLine());
+        } else if (lastMove != GameSource.END) {
+            Move.appendTo(sb, lastMove);
+        }
+        g.appendGameState(sb.append(Board.LINE_SEPARATOR)).append(Board.LINE_SEPARATOR);
+
+        g.switchCurrPlayer();
+        appendStatus(g, sb);
+        out.append(sb);
+        return g.getGameState();
+    }
+
+    /**
+     * Writes what the player to move is told after a move, exactly like file mode: the moves out of check and a
+     * prompt, just a prompt, or how the game ended
+     * 
+     * @param g                 PlayGame, game after a move was refereed, with the next player to move
+     * @param sb                StringBuilder, where to write
+     * @return                  StringBuilder, sb
+     */
+    static StringBuilder appendStatus(PlayGame g, StringBuilder sb) {
+        String newLine = Board.LINE_SEPARATOR;
+        Player player = g.getCurrPlayer();
+        if (g.getGameState() == -1) {
+            // player is in check so print all possible moves
+            sb.append(player.getType()).append(" player is in check!").append(newLine);
+            sb.append("Available moves:").append(newLine);
+            for (String possibleMove : player.allMovesToStrings()) {
+                sb.append(possibleMove).append(newLine);
+            }
+
+            // game is not over yet so go into interactive mode
+            sb.append(player.getType()).append('>').append(newLine);
+        } else if (g.getGameState() == 0) {
+            // game is not over yet so go into interactive mode
+            sb.append(player.getType()).append('>').append(newLine);
+        } else if (g.getGameState() == 1) {
+            // game ended over checkmate, the player to move is the one mated
+            sb.append(g.getPlayer(1 - player.getSide()).getType()).append(" player wins.  Checkmate.").append(newLine);
+        } else if (g.getGameState() == 2) {
+            // gamed ended over illegal move
+            sb.append(player.getType()).append(" player wins. ").append(" Illegal move.").append(newLine);
+        } else if (g.getGameState() == 3) {
+            // gamed ended in a tie
+            sb.append("Tie game.  Too many moves.").append(newLine);
         }
+        return sb;
     }
 
+    /**
+     * Plays one move of a game file: checks it gets the player out of check if needed, makes it, passes the turn
+     * and ends the game on checkmate or the move limit
+     * 
+     * @param g                 PlayGame, game to play on
+     * @param move              String like "move a1 a2" or "drop n e2"
+     * @return                  void
+     */
+    static void refereeMove(PlayGame g, String move) {
+        refereeMove(g, Move.parse(move));
+    }
 
+    /**
+     * Plays one packed move of a game exactly like file mode, see refereeMove(PlayGame, String)
+     * 
+     * @param g                 PlayGame, game to play on
+     * @param move              int, packed move (see Move), Move.NONE for a malformed move
+     * @return                  void
+     */
+    public static void refereeMove(PlayGame g, int move) {
+        // check player if player got out of check or not
+        if (g.getGameState() == -1 ) {
+            if (g.getCurrPlayer().getAllMoves().contains(move)) {
+                // player got out of check
+                g.getCurrPlayer().getAllMoves().clear();
+                g.setGameState(0);
+            } else {
+                // player did not get out of check so illegal move
+                g.setGameState(2);
+            }
+        }
+        
+        // get user's next move + move Piece
+        g.interpretMove(move);
+
+        // numMoves goes up +1 and switch to other player's turn
+        g.addNumMoves();
+        g.switchCurrPlayer();
+
+        // player is in check or checkmate
+        if (g.getGameState() == -1) {
+            if (g.getCurrPlayer().getAllMoves().isEmpty()) {
+                // player in checkmate
+                g.setGameState(1);
+            }
+        }
+        
+        // game ties
+        if (g.getGameState() == 0 && g.getNumMoves() >= PlayGame.MOVE_LIMIT) {
+            g.setGameState(3);
+        }
+    }
+
+    /**
+     * Prints the shortest forced mate of at most maxMoves moves for the player to move in a game file, after the
+     * file's moves are played, or that there is none
+     * 
+     * @param path              String, path of game file
+     * @param maxMoves          int, most moves of the mating player
+     * @param table             TranspositionTable, remembers positions between puzzles
+     * @return                  void
+     */
+    static void solveMate(String path, int maxMoves, TranspositionTable table) throws Exception {
+        PlayGame g = replayFile(path);
+        if (g.getGameState() > 0) {
+            System.out.println("Game is over.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        MateSearch search = new MateSearch(g, table);
+        MoveBuffer line = search.solve(maxMoves);
+        long time = (System.nanoTime() - start) / 1_000_000;
+        if (line == null) {
+            System.out.println("No mate in " + maxMoves + ".");
+        } else {
+            System.out.println(g.getCurrPlayer().getType() + " player mates in " + (line.size() + 1) / 2 + ":");
+            for (int i = 0; i < line.size(); i++) {
+                System.out.println(Move.toString(line.get(i)));
+            }
+        }
+        System.out.println("nodes " + search.getNodes() + " time " + time + " ms");
+    }
+
+    /**
+     * Makes a game from a file's initial pieces and captures (its moves are not played) or the default board
+     * 
+     * @param path              String, path of game file or null for the default board
+     * @return                  PlayGame, game with lower player to move
+     */
+    static PlayGame loadGame(String path) throws Exception {
+        if (path == null) {
+            return new PlayGame();
+        }
+        try (GameSource reader = GameSource.open(path)) {
+            return firstGame(reader, path);
+        }
+    }
+
+    /**
+     * Plays a game file's moves like file mode, without printing, stopping if the game ends
+     * 
+     * @param path              String, path of game file
+     * @return                  PlayGame, game after the file's moves
+     */
+    static PlayGame replayFile(String path) throws Exception {
+        try (GameSource reader = GameSource.open(path)) {
+            PlayGame g = firstGame(reader, path);
+            for (int move = reader.nextMove(); move != GameSource.END; move = reader.nextMove()) {
+                refereeMove(g, move);
+                if (g.getGameState() > 0) {
+                    break;
+                }
+            }
+            return g;
+        }
+    }
+
+    private static PlayGame firstGame(GameSource reader, String path) throws Exception {
+        PlayGame g = reader.nextGame();
+        if (g == null) {
+            throw new IllegalArgumentException("No game in " + path);
+        }
+        return g;
+    }
 }
@@ -0,0 +1,188 @@
+package src;
+
+/*
+ * Description: solves mate-in-N puzzles. The attacking side (the side to move) only plays moves and drops that
+ * give check, the defending side plays every legal evasion. Searching mate in 1, 2, ... N in turn finds the
+ * shortest mate, and positions proven to have no mate within some number of plies are remembered in a
+ * TranspositionTable so they are not searched twice.
+ */
+
+public class MateSearch {
+
+    private PlayGame game;
+    private TranspositionTable table;
+    private MoveBuffer[] buffers;       // one move buffer per ply so searching never allocates
+    private long nodes;
+
+    public MateSearch(PlayGame game, TranspositionTable table) {
+        this.game = game;
+        this.table = table;
+        buffers = new MoveBuffer[0];
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Looks for the shortest forced mate by the side to move
+     *
+     * @param maxMoves          int, most moves of the attacking side to look for a mate in, at least 1
+     * @return                  MoveBuffer, mating line from attacker's first move to the mating move with the
+     *                          defender's longest resistance in between, or null if there is no mate in maxMoves
+     */
+    public MoveBuffer solve(int maxMoves) {
+        int maxPlies = Math.min(2 * maxMoves - 1, Search.MAX_DEPTH - 1);
+        ensureBuffers(maxPlies);
+        nodes = 0;
+        table.newSearch();
+        for (int plies = 1; plies <= maxPlies; plies += 2) {
+            if (attack(plies, 0)) {
+                return mateLine(plies);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the side to move can force mate by checking on every move
+     *
+     * @param plies             int, plies left including the mating move, odd
+     * @param ply               int, distance from the root, selects the move buffer
+     * @return                  boolean, true = forced mate, false = no forced mate within plies
+     */
+    private boolean attack(int plies, int ply) {
+        nodes++;
+        long hash = game.getHash();
+        long entry = table.probe(hash);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            int depth = TranspositionTable.depth(entry);
+            if (TranspositionTable.bound(entry) == TranspositionTable.UPPER && depth >= plies) {
+                return false;
+            }
+            if (TranspositionTable.bound(entry) == TranspositionTable.LOWER && depth <= plies) {
+                return true;
+            }
+            tableMove = TranspositionTable.move(entry);
+        }
+
+        MoveBuffer moves = buffers[ply];
+        int numMoves = game.generateLegalMoves(moves);
+        if (tableMove != Move.NONE && moves.contains(tableMove)) {
+            // the move that mated here before is the best guess again
+            if (tryCheck(tableMove, plies, ply)) {
+                table.store(hash, tableMove, 0, plies, TranspositionTable.LOWER, 0);
+                return true;
+            }
+        }
+        for (int i = 0; i < numMoves; i++) {
+            int move = moves.get(i);
+            if (move != tableMove && tryCheck(move, plies, ply)) {
+                table.store(hash, move, 0, plies, TranspositionTable.LOWER, 0);
+                return true;
+            }
+        }
+        table.store(hash, Move.NONE, 0, plies, TranspositionTable.UPPER, 0);
+        return false;
+    }
+
+    private boolean tryCheck(int move, int plies, int ply) {
+        game.makeMove(move);
+        boolean mates = game.getBoard().isInCheck(game.getCurrPlayer().getSide()) && defend(plies - 1, ply + 1);
+        game.unmakeMove();
+        return mates;
+    }
+
+    /**
+     * Checks if every evasion of the side to move, which is in check, still loses
+     *
+     * @param plies             int, plies left, even
+     * @param ply               int, distance from the root, selects the move buffer
+     * @return                  boolean, true = mated now or after every evasion, false = an evasion escapes
+     */
+    private boolean defend(int plies, int ply) {
+        nodes++;
+        MoveBuffer moves = buffers[ply];
+        int numMoves = game.generateLegalMoves(moves);
+        if (numMoves == 0) {
+            return true;
+        }
+        if (plies == 0) {
+            return false;
+        }
+        for (int i = 0; i < numMoves; i++) {
+            game.makeMove(moves.get(i));
+            boolean mated = attack(plies - 1, ply + 1);
+            game.unmakeMove();
+            if (!mated) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the mating line of a proven mate, the defender always picks the evasion that is mated last. The
+     * line is cut short if no check can be proven again on the way.
+     *
+     * @param plies             int, plies of the shortest mate from the current position
+     * @return                  MoveBuffer, moves of the line, the game is left unchanged
+     */
+    private MoveBuffer mateLine(int plies) {
+        MoveBuffer line = new MoveBuffer();
+        MoveBuffer moves = new MoveBuffer();
+        while (plies > 0) {
+            game.generateLegalMoves(moves);
+            int mating = Move.NONE;
+            for (int i = 0; i < moves.size() && mating == Move.NONE; i++) {
+                if (tryCheck(moves.get(i), plies, 0)) {
+                    mating = moves.get(i);
+                }
+            }
+            // no check proves the mate again (the table lost it), so the line stops where the proof does
+            if (mating == Move.NONE) {
+                break;
+            }
+            line.add(mating);
+            game.makeMove(mating);
+            plies--;
+
+            game.generateLegalMoves(moves);
+            int longest = Move.NONE;
+            int longestPlies = -1;
+            for (int i = 0; i < moves.size(); i++) {
+                game.makeMove(moves.get(i));
+                int matePlies = 1;
+                while (matePlies < plies - 1 && !attack(matePlies, 1)) {
+                    matePlies += 2;
+                }
+                game.unmakeMove();
+                if (matePlies > longestPlies) {
+                    longestPlies = matePlies;
+                    longest = moves.get(i);
+                }
+            }
+            if (longest == Move.NONE) {
+                break;
+            }
+            line.add(longest);
+            game.makeMove(longest);
+            plies = longestPlies;
+        }
+        for (int i = 0; i < line.size(); i++) {
+            game.unmakeMove();
+        }
+        return line;
+    }
+
+    private void ensureBuffers(int depth) {
+        if (buffers.length < depth + 1) {
+            MoveBuffer[] grown = new MoveBuffer[depth + 1];
+            for (int ply = 0; ply < grown.length; ply++) {
+                grown[ply] = ply < buffers.length ? buffers[ply] : new MoveBuffer();
+            }
+            buffers = grown;
+        }
+    }
+}
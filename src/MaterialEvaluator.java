@@ -0,0 +1,27 @@
+package src;
+
+/*
+ * Description: material only evaluation, pieces in hand count as unpromoted pieces.
+ */
+
+public class MaterialEvaluator implements Evaluator {
+
+    // material value of each kind, unpromoted then promoted
+    static final int[] VALUES = {0, 700, 600, 500, 400, 100};
+    static final int[] PROMOTED_VALUES = {0, 1000, 900, 500, 500, 500};
+
+    public int evaluate(PlayGame game) {
+        Board board = game.getBoard();
+        int side = game.getCurrPlayer().getSide();
+        int promoted = board.getPromotedMask();
+        int score = 0;
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            int mine = board.getPieceMask(side, kind);
+            int theirs = board.getPieceMask(1 - side, kind);
+            score += VALUES[kind] * (Integer.bitCount(mine & ~promoted) - Integer.bitCount(theirs & ~promoted));
+            score += PROMOTED_VALUES[kind] * (Integer.bitCount(mine & promoted) - Integer.bitCount(theirs & promoted));
+            score += VALUES[kind] * (game.getCurrPlayer().handCount(kind) - game.getOpponent().handCount(kind));
+        }
+        return score;
+    }
+}
@@ -0,0 +1,134 @@
+package src;
+
+/*
+ * Description: packs a move into an int so moves can be stored and compared without Strings.
+ * bits 0-4 = to square, bits 5-9 = from square, bit 10 = promote, bit 11 = drop, bits 12-14 = dropped kind.
+ * Squares are indexed row * 5 + col like the board's bitboards.
+ */
+
+public class Move {
+
+    public static final int NONE = 0;       // never a legal move (from == to == a5)
+
+    private static final int FROM_SHIFT = 5;
+    private static final int PROMOTE = 1 << 10;
+    private static final int DROP = 1 << 11;
+    private static final int KIND_SHIFT = 12;
+
+    private Move() {
+    }
+
+    public static int make(int from, int to, boolean promote) {
+        return to | (from << FROM_SHIFT) | (promote ? PROMOTE : 0);
+    }
+
+    public static int drop(int kind, int to) {
+        return to | DROP | (kind << KIND_SHIFT);
+    }
+
+    public static int from(int move) {
+        return (move >>> FROM_SHIFT) & 31;
+    }
+
+    public static int to(int move) {
+        return move & 31;
+    }
+
+    public static boolean isPromote(int move) {
+        return (move & PROMOTE) != 0;
+    }
+
+    public static boolean isDrop(int move) {
+        return (move & DROP) != 0;
+    }
+
+    public static int dropKind(int move) {
+        return (move >>> KIND_SHIFT) & 7;
+    }
+
+    /**
+     * Converts user input version of move to a packed move
+     * For example, converts "move a1 a2 promote" or "drop n e2"
+     *
+     * @param s                 CharSequence, user input version of move, read in place so it is never copied
+     * @return                  int, packed move or NONE if s is not a well formed move
+     */
+    public static int parse(CharSequence s) {
+        if (startsWith(s, "move ", 0) && s.length() >= 10 && s.charAt(7) == ' ') {
+            int from = parseSquare(s, 5);
+            int to = parseSquare(s, 8);
+            if (from < 0 || to < 0) {
+                return NONE;
+            }
+            if (s.length() == 10) {
+                return make(from, to, false);
+            } else if (s.length() == 18 && startsWith(s, " promote", 10)) {
+                return make(from, to, true);
+            }
+        } else if (startsWith(s, "drop ", 0) && s.length() == 9 && s.charAt(6) == ' ') {
+            int kind = Piece.KIND_LETTERS.indexOf(s.charAt(5));
+            int to = parseSquare(s, 7);
+            if (kind >= 0 && to >= 0) {
+                return drop(kind, to);
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean startsWith(CharSequence s, String prefix, int offset) {
+        if (s.length() < offset + prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts 2 characters like a5 at index i of s to a square
+     *
+     * @param s                 CharSequence, user input version of move or position
+     * @param i                 int, index of the square's letter
+     * @return                  int, square or -1 if the characters are not on the board
+     */
+    static int parseSquare(CharSequence s, int i) {
+        int col = s.charAt(i) - 'a';
+        int row = 5 - (s.charAt(i + 1) - '0');
+        if (col < 0 || row < 0 || col >= 5 || row >= 5) {
+            return -1;
+        }
+        return Board.toSquare(row, col);
+    }
+
+    /**
+     * Appends the user input version of a packed move to sb
+     *
+     * @param sb                StringBuilder, where to write the move
+     * @param move              int, packed move
+     * @return                  StringBuilder, sb
+     */
+    public static StringBuilder appendTo(StringBuilder sb, int move) {
+        if (isDrop(move)) {
+            sb.append("drop ").append(Piece.KIND_LETTERS.charAt(dropKind(move))).append(' ');
+        } else {
+            sb.append("move ");
+            appendSquare(sb, from(move)).append(' ');
+        }
+        appendSquare(sb, to(move));
+        if (isPromote(move)) {
+            sb.append(" promote");
+        }
+        return sb;
+    }
+
+    private static StringBuilder appendSquare(StringBuilder sb, int square) {
+        return sb.append((char) ('a' + Board.colOf(square))).append((char) ('0' + 5 - Board.rowOf(square)));
+    }
+
+    public static String toString(int move) {
+        return appendTo(new StringBuilder(18), move).toString();
+    }
+}
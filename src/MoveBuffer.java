@@ -0,0 +1,82 @@
+package src;
+
+import java.util.Arrays;
+
+/*
+ * Description: growable list of packed moves (see Move) backed by a primitive int[], meant to be
+ * allocated once and cleared/reused.
+ */
+
+public class MoveBuffer {
+
+    private int[] moves;
+    private int size;
+
+    public MoveBuffer() {
+        this(128);
+    }
+
+    public MoveBuffer(int capacity) {
+        moves = new int[capacity];
+        size = 0;
+    }
+
+    public MoveBuffer(MoveBuffer other) {
+        moves = Arrays.copyOf(other.moves, other.moves.length);
+        size = other.size;
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            // only grows when a caller's buffer was too small, the grown array is kept for reuse
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int removeLast() {
+        return moves[--size];
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Move.appendTo(sb, moves[i]);
+        }
+        return sb.append("]").toString();
+    }
+}
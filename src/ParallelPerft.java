@@ -0,0 +1,102 @@
+package src;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Description: perft split over a ForkJoinPool. Every task owns its own copy of the game, subtrees deeper than
+ * SEQUENTIAL_DEPTH keep splitting so unbalanced trees still spread over all workers.
+ */
+
+public class ParallelPerft extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    // subtrees this shallow are counted on one thread, copying the game costs more than they take
+    static final int SEQUENTIAL_DEPTH = 3;
+
+    private transient PlayGame game;
+    private int depth;
+
+    public ParallelPerft(PlayGame game, int depth) {
+        this.game = game;
+        this.depth = depth;
+    }
+
+    protected Long compute() {
+        if (depth <= SEQUENTIAL_DEPTH) {
+            return new Perft(game).count(depth);
+        }
+        List<ParallelPerft> children = split(game, depth);
+        for (ParallelPerft child : children) {
+            child.fork();
+        }
+        long nodes = 0;
+        for (ParallelPerft child : children) {
+            nodes += child.join();
+        }
+        return nodes;
+    }
+
+    /**
+     * Makes one task per legal move of game, each on its own copy of game with the move played
+     *
+     * @param game              PlayGame, position to split, left unchanged
+     * @param depth             int, depth below game's position
+     * @return                  List<ParallelPerft>, tasks in move generation order
+     */
+    private static List<ParallelPerft> split(PlayGame game, int depth) {
+        MoveBuffer moves = new MoveBuffer();
+        game.generateLegalMoves(moves);
+        List<ParallelPerft> children = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            PlayGame child = new PlayGame(game);
+            child.makeMove(moves.get(i));
+            children.add(new ParallelPerft(child, depth - 1));
+        }
+        return children;
+    }
+
+    /**
+     * Counts the leaf nodes depth plies below game's position using pool
+     *
+     * @param game              PlayGame, position to count from, left unchanged
+     * @param depth             int, number of plies to search
+     * @param pool              ForkJoinPool, workers to count on
+     * @return                  long, number of leaf nodes
+     */
+    public static long count(PlayGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new ParallelPerft(new PlayGame(game), depth));
+    }
+
+    /**
+     * Parallel version of Perft.divide, root moves are printed in move generation order once all are counted
+     *
+     * @param game              PlayGame, position to count from, left unchanged
+     * @param depth             int, number of plies to search, at least 1
+     * @param pool              ForkJoinPool, workers to count on
+     * @param out               PrintStream, where to print
+     * @return                  long, total number of leaf nodes
+     */
+    public static long divide(PlayGame game, int depth, ForkJoinPool pool, PrintStream out) {
+        long start = System.nanoTime();
+        MoveBuffer roots = new MoveBuffer();
+        game.generateLegalMoves(roots);
+        List<ParallelPerft> children = split(game, depth);
+        for (ParallelPerft child : children) {
+            pool.execute(child);
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < children.size(); i++) {
+            long rootNodes = children.get(i).join();
+            out.println(Move.toString(roots.get(i)) + ": " + rootNodes);
+            nodes += rootNodes;
+        }
+        Perft.printSummary(out, nodes, System.nanoTime() - start);
+        return nodes;
+    }
+}
@@ -0,0 +1,152 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Description: root search split over a ForkJoinPool, one task per root move. Every task searches its own copy
+ * of the game and results are merged in move generation order, so without a table the chosen move does not depend
+ * on timing. Tasks can share one TranspositionTable, so positions reached through different root moves are
+ * searched once; what a task finds in the table then depends on which other tasks got there first, so scores and,
+ * between moves of nearly equal score, the chosen move can change from run to run. Forced mates are still found.
+ */
+
+public class ParallelSearch extends RecursiveTask<Search.Result> {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient PlayGame game;
+    private int move;
+    private int depth;
+    private long deadline;
+    private transient TranspositionTable table;
+
+    private ParallelSearch(PlayGame game, int move, int depth, long deadline, TranspositionTable table) {
+        this.game = game;
+        this.move = move;
+        this.depth = depth;
+        this.deadline = deadline;
+        this.table = table;
+    }
+
+    protected Search.Result compute() {
+        Search search = new Search(game, new PieceSquareEvaluator(), table);
+        int score = search.searchMove(move, depth, deadline);
+        return new Search.Result(search.isStopped() ? Move.NONE : move, score, search.getNodes(), depth);
+    }
+
+    /**
+     * Searches every legal move of game depth plies deep on pool
+     *
+     * @param game              PlayGame, position to search, left unchanged
+     * @param depth             int, number of plies to search, at least 1
+     * @param pool              ForkJoinPool, workers to search on
+     * @return                  Result, best move (the first one in move generation order on equal scores)
+     */
+    public static Search.Result search(PlayGame game, int depth, ForkJoinPool pool) {
+        return search(game, depth, pool, null);
+    }
+
+    /**
+     * Searches every legal move of game depth plies deep on pool, sharing table between all tasks
+     *
+     * @param game              PlayGame, position to search, left unchanged
+     * @param depth             int, number of plies to search, at least 1
+     * @param pool              ForkJoinPool, workers to search on
+     * @param table             TranspositionTable, shared by the tasks, null = none
+     * @return                  Result, best move (the first one in move generation order on equal scores), with
+     *                          a table it may differ between runs
+     */
+    public static Search.Result search(PlayGame game, int depth, ForkJoinPool pool, TranspositionTable table) {
+        if (table != null) {
+            table.newSearch();
+        }
+        MoveBuffer roots = new MoveBuffer();
+        game.generateLegalMoves(roots);
+        return searchRoots(copies(game, roots.size()), roots, depth, 0, pool, table);
+    }
+
+    /**
+     * Searches game on pool one ply deeper at a time until maxDepth or the time budget runs out, like Search.search
+     *
+     * @param game              PlayGame, position to search, left unchanged
+     * @param maxDepth          int, deepest iteration, at least 1
+     * @param millis            long, time budget in milliseconds, 0 = none
+     * @param pool              ForkJoinPool, workers to search on
+     * @param table             TranspositionTable, shared by the tasks, null = none
+     * @return                  Result, best move of the last completed iteration
+     */
+    public static Search.Result search(PlayGame game, int maxDepth, long millis, ForkJoinPool pool,
+            TranspositionTable table) {
+        long deadline = Search.deadline(millis);
+        if (table != null) {
+            table.newSearch();
+        }
+        MoveBuffer roots = new MoveBuffer();
+        if (game.generateLegalMoves(roots) == 0) {
+            // checkmated or stalemated, scored like Search scores them
+            return new Search.Result(Move.NONE, game.getBoard().isInCheck(game.getCurrPlayer().getSide())
+                    ? -Search.MATE : 0, 0, 0);
+        }
+        PlayGame[] copies = copies(game, roots.size());
+
+        // fall back on the first move if not even depth 1 completes
+        Search.Result best = new Search.Result(roots.get(0), 0, 0, 0);
+        long nodes = 0;
+        for (int depth = 1; depth <= Math.min(maxDepth, Search.MAX_DEPTH); depth++) {
+            Search.Result result = searchRoots(copies, roots, depth, deadline, pool, table);
+            nodes += result.nodes;
+            if (result.move == Move.NONE) {
+                // out of time, this iteration is incomplete
+                break;
+            }
+            best = result;
+            if (Math.abs(best.score) >= Search.MATE - Search.MAX_DEPTH) {
+                // forced mate found, deeper iterations cannot change it
+                break;
+            }
+        }
+        return new Search.Result(best.move, best.score, nodes, best.depth);
+    }
+
+    private static PlayGame[] copies(PlayGame game, int count) {
+        PlayGame[] copies = new PlayGame[count];
+        for (int i = 0; i < count; i++) {
+            copies[i] = new PlayGame(game);
+        }
+        return copies;
+    }
+
+    /**
+     * Searches each root move on its own copy of the game
+     *
+     * @return                  Result, best move and its score, Move.NONE if a task ran out of time
+     */
+    private static Search.Result searchRoots(PlayGame[] copies, MoveBuffer roots, int depth, long deadline,
+            ForkJoinPool pool, TranspositionTable table) {
+        List<ParallelSearch> tasks = new ArrayList<>(roots.size());
+        for (int i = 0; i < roots.size(); i++) {
+            ParallelSearch task = new ParallelSearch(copies[i], roots.get(i), depth, deadline, table);
+            pool.execute(task);
+            tasks.add(task);
+        }
+
+        int bestMove = Move.NONE;
+        int bestScore = -Search.MATE;
+        long nodes = 0;
+        boolean stopped = false;
+        for (ParallelSearch task : tasks) {
+            Search.Result result = task.join();
+            nodes += result.nodes;
+            if (result.move == Move.NONE) {
+                stopped = true;
+            } else if (result.score > bestScore || bestMove == Move.NONE) {
+                bestScore = result.score;
+                bestMove = result.move;
+            }
+        }
+        return new Search.Result(stopped ? Move.NONE : bestMove, bestScore, nodes, depth);
+    }
+}
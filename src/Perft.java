@@ -0,0 +1,100 @@
+package src;
+
+import java.io.PrintStream;
+
+/*
+ * Description: counts the leaf nodes of the legal move tree (perft) to validate and benchmark move generation.
+ */
+
+public class Perft {
+
+    private PlayGame game;
+    private MoveBuffer[] buffers;       // one move buffer per ply so counting never allocates
+
+    public Perft(PlayGame game) {
+        this.game = game;
+        buffers = new MoveBuffer[0];
+    }
+
+    /**
+     * Counts the leaf nodes depth plies below the game's current position
+     *
+     * @param depth             int, number of plies to search
+     * @return                  long, number of leaf nodes
+     */
+    public long count(int depth) {
+        ensureBuffers(depth);
+        return count(depth, 0);
+    }
+
+    private long count(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveBuffer moves = buffers[ply];
+        int numMoves = game.generateLegalMoves(moves);
+        if (depth == 1) {
+            // leaf nodes are just the legal moves, no need to make them
+            return numMoves;
+        }
+        long nodes = 0;
+        for (int i = 0; i < numMoves; i++) {
+            game.makeMove(moves.get(i));
+            nodes += count(depth - 1, ply + 1);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move and prints one line per root move ("divide"),
+     * followed by the total, time taken and nodes per second
+     *
+     * @param depth             int, number of plies to search, at least 1
+     * @param out               PrintStream, where to print
+     * @return                  long, total number of leaf nodes
+     */
+    public long divide(int depth, PrintStream out) {
+        ensureBuffers(depth);
+        long start = System.nanoTime();
+        MoveBuffer roots = new MoveBuffer();
+        game.generateLegalMoves(roots);
+
+        long nodes = 0;
+        for (int i = 0; i < roots.size(); i++) {
+            game.makeMove(roots.get(i));
+            long rootNodes = count(depth - 1, 1);
+            game.unmakeMove();
+            out.println(Move.toString(roots.get(i)) + ": " + rootNodes);
+            nodes += rootNodes;
+        }
+        printSummary(out, nodes, System.nanoTime() - start);
+        return nodes;
+    }
+
+    /**
+     * Prints total nodes, time taken and nodes per second
+     *
+     * @param out               PrintStream, where to print
+     * @param nodes             long, number of leaf nodes
+     * @param nanos             long, time taken in nanoseconds
+     * @return                  void
+     */
+    static void printSummary(PrintStream out, long nodes, long nanos) {
+        long millis = nanos / 1_000_000;
+        out.println();
+        out.println("Nodes: " + nodes);
+        out.println("Time: " + millis + " ms");
+        out.println("Nodes/sec: " + (nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos));
+    }
+
+    private void ensureBuffers(int depth) {
+        if (buffers.length < depth + 1) {
+            MoveBuffer[] grown = new MoveBuffer[depth + 1];
+            for (int ply = 0; ply < grown.length; ply++) {
+                grown[ply] = ply < buffers.length ? buffers[ply] : new MoveBuffer();
+            }
+            buffers = grown;
+        }
+    }
+}
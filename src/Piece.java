@@ -1,107 +1,72 @@
 package src;
-import java.util.*;
 
 /*
  * Description: 
  */
 
 public abstract class Piece {
-    private String name;
-    private String owner;
-    private boolean isPromoted;
+    // piece kinds, used to index the board's bitboards
+    public static final int KING = 0;
+    public static final int ROOK = 1;
+    public static final int BISHOP = 2;
+    public static final int GOLD_GENERAL = 3;
+    public static final int SILVER_GENERAL = 4;
+    public static final int PAWN = 5;
+    public static final int NUM_KINDS = 6;
+    // lowercase letter of each kind, indexed by kind
+    public static final String KIND_LETTERS = "dngsrp";
+
+    private PieceType type;         // kind, owner and promotion, shared with every piece of the same type
     final int BOARD_SIZE = 5;
-    public Set<String> moves;
-    public Set<String> movesBehind;
 
-    public Piece(String name, String owner, int currX, int currY) {
-        this.name = name;
-        this.owner = owner;
-        
-        // initialize piece's moves at starting x, y position
-        moves = new HashSet<>();
-        movesBehind = new HashSet<>();
-        setMoves(getMoves(currX, currY));
+    public Piece(int side, int currX, int currY) {
+        type = PieceType.of(getKind(), side, false);
     }
 
-    public abstract Set<String> getMoves(int startX, int startY);
-
-    public void setMoves(Set<String> moves) {
-        this.moves = moves;
-    }
-
-    public void setMovesBehind(Set<String> movesBehind) {
-        this.movesBehind = movesBehind;
-    }
+    /**
+     * Gets the kind of piece, one of KING, ROOK, BISHOP, GOLD_GENERAL, SILVER_GENERAL or PAWN
+     * 
+     * @return                  int, piece kind
+     */
+    public abstract int getKind();
 
-    public Set<String> getMovesBehind() {
-        return movesBehind;
+    public PieceType getType() {
+        return type;
     }
 
     public String getName() {
-        return name;
-    }
-
-    public void setName(String name) {
-        this.name = name;
+        return type.getName();
     }
 
     public String getOwner() {
-        return owner;
+        return type.getOwner();
     }
 
-    public void setOwner(String owner) {
-        this.owner = owner;
+    public int getSide() {
+        return type.getSide();
     }
 
     public boolean getIsPromoted() {
-        return isPromoted;
-    }
-
-    public void setIsPromoted(boolean isPromoted) {
-        this.isPromoted = isPromoted; 
-    }
-
-    public boolean canReach(int startX, int startY, int endX, int endY, Board board) {
-        // check if piece can each end(y, x)
-        String endXY = "(" + endX + ", " + endY + ")";
-        return (moves.contains(endXY) || movesBehind.contains(endXY));
+        return type.isPromoted();
     }
 
     /**
-     * Checks if end(y, x) is within piece's range of movement based on current location
+     * Checks if piece can reach end(y, x) from start(y, x) on the current board, sliding pieces are blocked
+     * by any piece in between. Uses the same attacks as the board's attack maps, so a move is legal for the
+     * referee exactly when the piece attacks its destination
      * 
+     * @param startY            int, piece's starting y coordinate
+     * @param startX            int, piece's starting x coordinate
      * @param endY              int, piece's ending y coordinate
      * @param endX              int, piece's ending x coordinate
-     * @return                  boolean, true = move is legal, false = move is illegal
+     * @param board             Board, current board
+     * @return                  boolean, true = piece can reach end(y, x), false = piece cannot reach end(y, x)
      */
-    public boolean ifLegal(int endX, int endY) {
-        String endXY = "(" + endX + ", " + endY + ")";
-        boolean ifLegal = moves.contains(endXY) || movesBehind.contains(endXY);
-        
-        // get piece's moves at new location if move is legal
-        if (ifLegal) {
-            moves.clear();
-            setMoves(getMoves(endX, endY));
-            movesBehind.clear();
-        }
-        return ifLegal;
-    }
-
-    public void capture() {
-        // switch ownership of piece
-        if (getOwner().equals(Player.upper)) {
-            setOwner(Player.lower);
-            setName(getName().toLowerCase());
-        } else {
-            setOwner(Player.upper);
-            setName(getName().toUpperCase());
-        }
-
-        // reset piece if promoted
-        if (getIsPromoted()) {
-            setName(getName().substring(1));
-            setIsPromoted(false);
-        }
+    public boolean canReach(int startY, int startX, int endY, int endX, Board board) {
+        // check if piece can each end(y, x)
+        int attacks = Attacks.getAttacks(type.getKind(), type.getSide(), type.isPromoted(), Board.toSquare(startY, startX),
+                board.getOccupiedMask());
+        return (attacks & (1 << Board.toSquare(endY, endX))) != 0;
     }
 
     public boolean promote(int startX, int startY) {
@@ -110,17 +75,44 @@ public abstract class Piece {
             return false;
         }
         
-        // promote + rename piece
-        setName("+" + getName());
-        setIsPromoted(true);
-        
-        // update piece's moves at curr location
-        moves.clear();
-        setMoves(getMoves(startX, startY));
+        // promote piece
+        type = type.promote();
         return true;
     }
     
+    /**
+     * Makes an independent copy of this piece with the same name, owner and promotion
+     * 
+     * @return                  Piece, copy of this piece
+     */
+    public Piece copy() {
+        return of(type, 0, 0);
+    }
+
+    /**
+     * Makes a piece of a type, like a captured piece being dropped
+     * 
+     * @param type              PieceType, kind, owner and promotion of the new piece
+     * @param row               int, piece's starting y coordinate
+     * @param col               int, piece's starting x coordinate
+     * @return                  Piece, new piece
+     */
+    public static Piece of(PieceType type, int row, int col) {
+        Piece p = Board.newPiece(type.getKind(), type.getSide(), row, col);
+        p.type = type;
+        return p;
+    }
+
+    /**
+     * Takes back a promotion, used when undoing a move
+     * 
+     * @return                  void
+     */
+    public void unpromote() {
+        type = type.unpromote();
+    }
+    
     public String toString() {
-        return name;
+        return type.getName();
     }
 }
@@ -0,0 +1,34 @@
+package src;
+
+/*
+ * Description: material, hand and piece-square evaluation with EvalWeights. Once prepare has installed the weights
+ * in a game, the score is kept up to date by the board and hands as moves are made and taken back, so evaluating
+ * a position is a lookup instead of a scan. A game without them installed is scanned and left unchanged.
+ */
+
+public class PieceSquareEvaluator implements Evaluator {
+
+    private final EvalWeights weights;
+
+    public PieceSquareEvaluator() {
+        this(EvalWeights.DEFAULT);
+    }
+
+    /**
+     * @param weights           EvalWeights, material, hand bonuses and piece-square tables to score with
+     */
+    public PieceSquareEvaluator(EvalWeights weights) {
+        this.weights = weights;
+    }
+
+    public void prepare(PlayGame game) {
+        if (game.getEvalWeights() != weights) {
+            // from here on moves keep the score
+            game.setEvalWeights(weights);
+        }
+    }
+
+    public int evaluate(PlayGame game) {
+        return game.getEval(weights);
+    }
+}
@@ -0,0 +1,106 @@
+package src;
+
+/*
+ * Description: what a piece is (kind, owner and promotion) apart from where it is. There is one shared, immutable
+ * instance per combination, so checking what a piece is compares ints or references, and capturing or promoting
+ * a piece switches it to another instance instead of building new name strings.
+ */
+
+public final class PieceType {
+
+    // every type by index, null for promoted kings and gold generals which cannot exist
+    private static final PieceType[] TYPES = new PieceType[4 * Piece.NUM_KINDS];
+
+    static {
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            for (int side = Player.LOWER_SIDE; side <= Player.UPPER_SIDE; side++) {
+                TYPES[index(kind, side, false)] = new PieceType(kind, side, false);
+                if (kind != Piece.KING && kind != Piece.GOLD_GENERAL) {
+                    TYPES[index(kind, side, true)] = new PieceType(kind, side, true);
+                }
+            }
+        }
+    }
+
+    private final int kind;
+    private final int side;
+    private final boolean promoted;
+    private final String name;          // like "n", "N" or "+N"
+    private final String owner;         // Player.upper or Player.lower
+
+    private PieceType(int kind, int side, boolean promoted) {
+        this.kind = kind;
+        this.side = side;
+        this.promoted = promoted;
+        String letter = String.valueOf(Piece.KIND_LETTERS.charAt(kind));
+        name = (promoted ? "+" : "") + (side == Player.UPPER_SIDE ? letter.toUpperCase() : letter);
+        owner = side == Player.UPPER_SIDE ? Player.upper : Player.lower;
+    }
+
+    /**
+     * Gets the shared type of a kind, owner and promotion
+     *
+     * @param kind              int, piece kind like Piece.PAWN
+     * @param side              int, Player.LOWER_SIDE or Player.UPPER_SIDE
+     * @param promoted          boolean, true = promoted
+     * @return                  PieceType, shared type, null if a piece of that kind cannot be promoted
+     */
+    public static PieceType of(int kind, int side, boolean promoted) {
+        return TYPES[index(kind, side, promoted)];
+    }
+
+    private static int index(int kind, int side, boolean promoted) {
+        return ((promoted ? 2 : 0) + side) * Piece.NUM_KINDS + kind;
+    }
+
+    /**
+     * Gets the type's index, unique per type and below 4 * Piece.NUM_KINDS, for tables indexed by type
+     *
+     * @return                  int, index
+     */
+    public int index() {
+        return index(kind, side, promoted);
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return                  PieceType, this type promoted, null if it is promoted already or cannot promote
+     */
+    public PieceType promote() {
+        return promoted ? null : of(kind, side, true);
+    }
+
+    public PieceType unpromote() {
+        return of(kind, side, false);
+    }
+
+    /**
+     * @return                  PieceType, the unpromoted type of the other side, what a captured piece becomes
+     */
+    public PieceType capture() {
+        return of(kind, 1 - side, false);
+    }
+
+    public String toString() {
+        return name;
+    }
+}
@@ -1,6 +1,6 @@
 package src;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import src.Utils.InitialPosition;
@@ -22,22 +22,33 @@ public class PlayGame {
     private Player upper;
     private Player lower;
     private Player currPlayer;
+    private MoveBuffer history;     // packed moves played so far
+
+    // moves played by both players at which a game not in check ends in a tie
+    public static final int MOVE_LIMIT = 400;
+
+    // undo stack for makeMove/unmakeMove, one entry per move made
+    // undoInfo = packed move | UNDO_PROMOTED | hand index << UNDO_INDEX_SHIFT
+    private static final int UNDO_MOVE_MASK = (1 << 15) - 1;
+    private static final int UNDO_PROMOTED = 1 << 15;
+    private static final int UNDO_INDEX_SHIFT = 16;
+    private int[] undoInfo;
+    private Piece[] undoCaptured;       // captured piece or null
+    private int undoSize;
 
     public PlayGame() {
         // initialize game in interactive mode (default: default piece placement + lower player goes first)
         numMoves = 0;
         gameState = 0;
+        history = new MoveBuffer();
+        undoInfo = new int[64];
+        undoCaptured = new Piece[64];
         board = new Board();
 
         upper = new Player(Player.upper);
         lower = new Player(Player.lower);
         currPlayer = lower;
 
-        switchCurrPlayer();
-        ifInFront(1, 4);
-        switchCurrPlayer();
-        ifInFront(3, 0);
-
         // initialize each player's myPieces
         for (int row = 0; row < 2; row++) {
             for (int col = 0; col < board.BOARD_SIZE; col++) {
@@ -61,31 +72,63 @@ public class PlayGame {
         // initialize game in file mode
         numMoves = 0;
         gameState = 0;
+        history = new MoveBuffer();
+        undoInfo = new int[64];
+        undoCaptured = new Piece[64];
 
         // initialize players and board
         upper = new Player(Player.upper);
         lower = new Player(Player.lower);
         board = new Board(initialPieces, upper, lower);
 
-        // initialize each player's capturedPieces
-        if (upperCaptures.size() > 1) {
-            for (String capture : upperCaptures) {
+        // initialize each player's hand, an empty list "[]" reads as one empty string
+        for (String capture : upperCaptures) {
+            if (!capture.isEmpty()) {
                 // captured pieces have {0, 0} location
-                Piece p = board.makePiece(capture, new int[]{0, 0});
-                upper.addCapturedPieces(p);
+                upper.addToHand(board.makePiece(capture, new int[]{0, 0}).getType());
             }
         }
-        if (lowerCaptures.size() > 1) {
-            for (String capture : lowerCaptures) {
+        for (String capture : lowerCaptures) {
+            if (!capture.isEmpty()) {
                 // captured pieces have {0, 0} location
-                Piece p = board.makePiece(capture, new int[]{0, 0});
-                lower.addCapturedPieces(p);
+                lower.addToHand(board.makePiece(capture, new int[]{0, 0}).getType());
             }
         }
 
         currPlayer = lower;
     }
 
+    /**
+     * Makes an independent copy of other (board, pieces, hands, history and refereeing state) so it can be
+     * played on by another thread, the copy starts with an empty undo stack
+     * 
+     * @param other             PlayGame, game to copy
+     */
+    public PlayGame(PlayGame other) {
+        numMoves = other.numMoves;
+        gameState = other.gameState;
+        history = new MoveBuffer(other.history);
+        undoInfo = new int[64];
+        undoCaptured = new Piece[64];
+
+        upper = new Player(Player.upper);
+        lower = new Player(Player.lower);
+        board = new Board(other.board, upper, lower);
+        copyHand(other.upper, upper);
+        copyHand(other.lower, lower);
+        currPlayer = other.currPlayer == other.upper ? upper : lower;
+        setEvalWeights(other.getEvalWeights());
+    }
+
+    private static void copyHand(Player from, Player to) {
+        for (int i = 0; i < from.handSize(); i++) {
+            to.addToHand(from.getHandPiece(i));
+        }
+        for (int i = 0; i < from.getAllMoves().size(); i++) {
+            to.addToAllMoves(from.getAllMoves().get(i));
+        }
+    }
+
     public int getGameState() {
         return gameState;
     }
@@ -102,12 +145,111 @@ public class PlayGame {
         this.numMoves += 1;
     }
 
+    public void setNumMoves(int num) {
+        this.numMoves = num;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public MoveBuffer getHistory() {
+        return history;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position: pieces on the board, hand counts and side to move
+     * 
+     * @return                  long, position hash, equal positions always have equal hashes
+     */
+    public long getHash() {
+        long hash = board.getHash() ^ upper.getHandHash() ^ lower.getHandHash();
+        return currPlayer == upper ? hash ^ Zobrist.SIDE_KEY : hash;
+    }
+
+    /**
+     * Starts keeping the position's score with weights, from then on every move and undo updates it
+     * 
+     * @param weights           EvalWeights, weights to score with, null stops keeping the score
+     * @return                  void
+     */
+    public void setEvalWeights(EvalWeights weights) {
+        board.setEvalWeights(weights);
+        upper.setEvalWeights(weights);
+        lower.setEvalWeights(weights);
+    }
+
+    public EvalWeights getEvalWeights() {
+        return board.getEvalWeights();
+    }
+
+    /**
+     * Gets the score of the position with the weights set by setEvalWeights: pieces on the board and in hand
+     * 
+     * @return                  int, score for the side to move, positive = side to move is better
+     */
+    public int getEval() {
+        int eval = board.getEval() + upper.getHandEval() + lower.getHandEval();
+        return currPlayer == lower ? eval : -eval;
+    }
+
+    /**
+     * Gets the score of the position with weights without changing the game: the kept score if the game keeps
+     * it with weights, otherwise scored from scratch
+     * 
+     * @param weights           EvalWeights, weights to score with
+     * @return                  int, score for the side to move, positive = side to move is better
+     */
+    public int getEval(EvalWeights weights) {
+        if (weights == getEvalWeights()) {
+            return getEval();
+        }
+        int eval = board.getEval(weights) + upper.getHandEval(weights) + lower.getHandEval(weights);
+        return currPlayer == lower ? eval : -eval;
+    }
+
+    /**
+     * Writes the position as one line of Sfen notation, like "NGRSD/4P/5/p4/dsrgn l - 1"
+     * 
+     * @return                  String, board, captures, side to move and move number
+     */
+    public String toSfen() {
+        return Sfen.append(this, new StringBuilder(48)).toString();
+    }
+
+    /**
+     * Makes a game at a position written in Sfen notation
+     * 
+     * @param sfen              CharSequence, position like "NGRSD/4P/5/p4/dsrgn l - 1"
+     * @return                  PlayGame, game at that position
+     */
+    public static PlayGame fromSfen(CharSequence sfen) {
+        return Sfen.parse(sfen);
+    }
+
+    /**
+     * Packs the game into a few dozen bytes, see CompactState
+     * 
+     * @return                  CompactState, pieces, captures, side to move, move count and game state
+     */
+    public CompactState toCompactState() {
+        return CompactState.of(this);
+    }
+
+    public static PlayGame fromCompactState(CompactState state) {
+        return state.toGame();
+    }
+
+    public Player getPlayer(int side) {
+        return side == Player.UPPER_SIDE ? upper : lower;
+    }
+
     public Player getCurrPlayer() {
         return currPlayer;
     }
 
     public void switchCurrPlayer() {
-        if (currPlayer.getType().equals(Player.lower)) {
+        if (currPlayer == lower) {
             currPlayer = upper;
         } else {
             currPlayer = lower;
@@ -121,23 +263,39 @@ public class PlayGame {
      * @return
      */
     public void interpretMove(String move) {
-        String[] moveArray = move.split(" ");
-        
-        if (moveArray[0].equals("move")) {
+        interpretMove(Move.parse(move));
+    }
 
-            int[] moveFrom = board.convertPositionToInt(moveArray[1]);
-            int[] moveTo = board.convertPositionToInt(moveArray[2]);
+    /**
+     * Given a packed move, perform move/drop/promotion if legal and end game if illegal.
+     * 
+     * @param move            int, packed move (see Move), Move.NONE is always illegal
+     * @return
+     */
+    public void interpretMove(int move) {
+        if (move == Move.NONE) {
+            // illegal move
+            setGameState(2);
+            return;
+        }
+
+        int toY = Board.rowOf(Move.to(move));
+        int toX = Board.colOf(Move.to(move));
+
+        if (!Move.isDrop(move)) {
+            int fromY = Board.rowOf(Move.from(move));
+            int fromX = Board.colOf(Move.from(move));
 
             // check if move is legal
-            if (ifLegalMove(moveFrom[0], moveFrom[1], moveTo[0], moveTo[1], true)) {
-                Piece p = board.getPiece(moveFrom[0], moveFrom[1]);
+            if (ifLegalMove(fromY, fromX, toY, toX, true)) {
+                Piece p = board.getPiece(fromY, fromX);
 
                 // check for promotions first
-                if ((moveArray.length == 4 && moveArray[3].equals("promote")) || 
-                        (p.getName().equalsIgnoreCase("p")) && moveTo[0] == currPlayer.getPromotionRow()) {
+                if (Move.isPromote(move) || 
+                        (p.getKind() == Piece.PAWN && !p.getIsPromoted() && toY == currPlayer.getPromotionRow())) {
                     // promote piece if legal
-                    if (ifLegalPromote(moveFrom[0], moveTo[0], moveTo[1])) {
-                        if (!p.promote(moveTo[0], moveTo[1])) {
+                    if (ifLegalPromote(fromY, toY, toX)) {
+                        if (!p.promote(toY, toX)) {
                             // unsuccessfull promotion = illegal move
                             setGameState(2);
                             return;
@@ -149,29 +307,27 @@ public class PlayGame {
                     }
                 }
                 // capture piece if neccassary then move piece
-                capturePiece(moveTo[0], moveTo[1]);
-                movePiece(p, moveFrom[0], moveFrom[1], moveTo[0], moveTo[1]);
+                capturePiece(toY, toX);
+                movePiece(p, fromY, fromX, toY, toX);
+                history.add(move);
             } else {
                 // illegal move
                 setGameState(2);
             }
             
-        } else if (moveArray[0].equals("drop")) {
-            String piece = moveArray[1];
-            int[] dropTo = board.convertPositionToInt(moveArray[2]);
+        } else {
+            int kind = Move.dropKind(move);
 
             // check if drop is legal
-            if (ifLegalDrop(piece, dropTo[0], dropTo[1])) {
+            if (ifLegalDrop(kind, toY, toX)) {
                 // drop piece
-                Piece p = currPlayer.getACapturedPiece(piece);
-                dropPiece(p, dropTo[0], dropTo[1]);
+                Piece p = Piece.of(currPlayer.removeFromHand(currPlayer.indexInHand(kind)), toY, toX);
+                dropPiece(p, toY, toX);
+                history.add(move);
             } else {
                 // illegal move
                 setGameState(2);
             }
-        } else {
-            // illegal move
-            setGameState(2);
         }
     }
 
@@ -204,65 +360,40 @@ public class PlayGame {
         
         Piece p = board.getPiece(startY, startX);
         // cannot move other player's piece
-        if (!p.getOwner().equals(currPlayer.getType())) {
+        if (p.getSide() != currPlayer.getSide()) {
             return false;
         }
         
         // check not to capture own piece
         if (board.isOccupied(endY, endX)) {
             Piece p2 = board.getPiece(endY, endX);
-            if (p2.getOwner().equals(currPlayer.getType())) {
+            if (p2.getSide() == currPlayer.getSide()) {
                 return false;
             }
         }
 
-        if (p.getName().equalsIgnoreCase("d")) {
+        int from = Board.toSquare(startY, startX);
+        int to = Board.toSquare(endY, endX);
+        if (p.getKind() == Piece.KING) {
             // does king's new position put itself in check?
-            switchCurrPlayer();
-            for(int row = 0; row < board.BOARD_SIZE; row++) {
-                for (int col = 0; col < board.BOARD_SIZE; col++) {
-                    if (board.isOccupied(row, col)) {
-                        // temporarily remove king
-                        board.setPiece(null, startY, startX);
-                        Piece op = board.getPiece(row, col);
-                        if (currPlayer.getMyPieces().contains(op) && op.canReach(row, col, endY, endX, board)) {
-                            // king put itself in check
-                            switchCurrPlayer();
-                            board.setPiece(p, startY, startX); 
-                            return false;
-                        }
-                        // put king back
-                        board.setPiece(p, startY, startX); 
-                    }
-                    
-                }
+            if (!isKingMoveSafe(from, to)) {
+                // king put itself in check
+                return false;
+            }
+        } else if ((board.pinnedPieces(currPlayer.getSide()) & (1 << from)) != 0) {
+            // pinned piece cannot leave the line between its king and the pinning piece
+            if ((Board.LINE[board.getKingSquare(currPlayer.getSide())][from] & (1 << to)) == 0) {
+                return false;
             }
-            switchCurrPlayer();
         }
 
-        // check if move is legal for piece
+        // check if piece can reach end(y, x), sliders are blocked by pieces in between
         if (isMoving) {
-            return p.ifLegal(endY, endX);
+            return p.canReach(startY, startX, endY, endX, board);
         } 
         return true;
     }
 
-    public void ifInFront(int startY, int startX) {
-        int behindY = startY - 1;
-        if (currPlayer.getType().equals(Player.lower)) {
-            behindY = startY + 1;
-        }
-
-        if (board.isOccupied(behindY, startX)) {
-            Piece p = board.getPiece(startY, startX);
-            Piece behindP = board.getPiece(behindY, startX);
-            if (behindP.getOwner().equals(currPlayer.getType())) {
-                p.setMovesBehind(behindP.getMoves(startY, startX));
-            }
-        }
-
-    }
-
     /**
      * Checks if a promotion is legal based on if the starting/ending y coordinate is in the promotion zone
      * 
@@ -284,12 +415,12 @@ public class PlayGame {
     /**
      * Checks if a drop is legal based on starting (y, x) and piece
      * 
-     * @param piece             String like n or g, String representation of piece to be dropped
+     * @param kind              int, kind of piece to be dropped like Piece.PAWN
      * @param startY            int, piece's starting y coordinate
      * @param startX            int, piece's starting x coordinate
      * @return                  boolean, true = drop is legal, false = drop is illegal
      */
-    public boolean ifLegalDrop(String piece, int startY, int startX) {
+    public boolean ifLegalDrop(int kind, int startY, int startX) {
         // check coordinates are in bounds
         if (startY < 0 || startX < 0 || startY >= board.BOARD_SIZE || startX >= board.BOARD_SIZE) {
             return false;
@@ -300,12 +431,12 @@ public class PlayGame {
             return false;
         }
 
-        // check if piece p is in player's captured pieces list
-        if (currPlayer.getACapturedPiece(piece) == null) {
+        // check if player has a captured piece of that kind
+        if (!currPlayer.hasInHand(kind)) {
             return false;
         }
         
-        if (piece.equalsIgnoreCase("p")) {
+        if (kind == Piece.PAWN) {
             // check for specific drop rules for pawns
 
             // cannot drop pawn in promotion zone
@@ -315,7 +446,7 @@ public class PlayGame {
 
             // cannot drop pawn where immediate checkmate is possible (king is in front of pawn)
             int upY = startY;
-            if (currPlayer.getType().equals(Player.lower)) {
+            if (currPlayer == lower) {
                 upY--;
             } else {
                 upY++;
@@ -323,7 +454,7 @@ public class PlayGame {
             if (upY >= 0 && upY < board.BOARD_SIZE) {
                 if (board.isOccupied(upY, startX)) {
                     Piece p2 = board.getPiece(upY, startX);
-                    if (!(currPlayer.getType().equals(p2.getOwner())) && p2.getName().equalsIgnoreCase("d")) {
+                    if (p2.getSide() != currPlayer.getSide() && p2.getKind() == Piece.KING) {
                         return false;
                     }
                 }
@@ -333,7 +464,7 @@ public class PlayGame {
             for (int row = 0; row < board.BOARD_SIZE; row++) {
                 if (board.isOccupied(row, startX)) {
                     Piece p2 = board.getPiece(row, startX);
-                    if (currPlayer.getType().equals(p2.getOwner()) && p2.getName().equalsIgnoreCase("p")) {
+                    if (p2.getSide() == currPlayer.getSide() && p2.getType() == PieceType.of(Piece.PAWN, p2.getSide(), false)) {
                         return false;
                     }
                 }
@@ -357,16 +488,14 @@ public class PlayGame {
         // move piece
         board.setPiece(null, startY, startX);
         board.setPiece(p, endY, endX); 
-        ifInFront(endY, endX);
         
-        if (p.getName().equalsIgnoreCase("d")) {
+        if (p.getKind() == Piece.KING) {
             // update king's curr position
             King k = (King) p;
             k.setCurrPos(endY, endX);
-        } else {
-            // check if piece puts opponent's king in check
-            ifCheck(p, endY, endX);
         }
+        // check if move puts opponent's king in check, a king move can uncover a check too
+        ifCheck();
     }
 
     
@@ -383,9 +512,8 @@ public class PlayGame {
         // capture piece if necessary
         if (board.isOccupied(endY, endX)) {
             Piece capturedP = board.getPiece(endY, endX);
-            // capture piece
-            capturedP.capture();
-            currPlayer.addCapturedPieces(capturedP);
+            // capture piece, it goes to the hand unpromoted and owned by currPlayer
+            currPlayer.addToHand(capturedP.getType().capture());
             
             // remove piece from opponent's myPieces
             switchCurrPlayer();
@@ -395,7 +523,7 @@ public class PlayGame {
     }
 
     /**
-     * drops piece p at start(y, x)
+     * drops piece p, already taken out of currPlayer's hand, at start(y, x)
      * 
      * @param p                 Piece, piece that currPlayer dropped
      * @param startY            int, piece's starting y coordinate
@@ -405,39 +533,140 @@ public class PlayGame {
     public void dropPiece(Piece p, int startY, int startX) {
         // drop piece
         board.setPiece(p, startY, startX);
-        currPlayer.removeCapturedPieces(p);
         currPlayer.addMyPieces(p);
-        
-        // initialize piece's moves
-        p.setMoves(p.getMoves(startY, startX));
-        ifInFront(startY, startX);
 
-        if (p.getName().equalsIgnoreCase("d")) {
+        if (p.getKind() == Piece.KING) {
             // update king's curr position
             King k = (King) p;
             k.setCurrPos(startY, startX);
         } else {
             // does piece put opponent's king in check
-            ifCheck(p, startY, startX);
+            ifCheck();
         }
     }
     
     /**
-     * checks if piece p puts the opponent king's in check
+     * Plays a legal move (usually from generateLegalMoves) in place and passes the turn, without any
+     * refereeing: gameState, numMoves and check evasions are left alone. Every change is recorded so
+     * unmakeMove can restore the exact previous position.
      * 
-     * @param p                 Piece, piece that currPlayer moved
-     * @param startY            int, piece's starting y coordinate
-     * @param startX            int, piece's starting x coordinate
+     * @param move              int, packed legal move
      * @return                  void
      */
-    public void ifCheck(Piece p, int startX, int startY) {
+    public void makeMove(int move) {
+        if (undoSize == undoInfo.length) {
+            growUndo();
+        }
+        int to = Move.to(move);
+        int toY = Board.rowOf(to);
+        int toX = Board.colOf(to);
+        int info = move;
+        Piece captured = null;
+        Piece p;
+
+        if (Move.isDrop(move)) {
+            // take piece out of hand, remember where it was so the hand prints the same after unmakeMove
+            int index = currPlayer.indexInHand(Move.dropKind(move));
+            p = Piece.of(currPlayer.removeFromHand(index), toY, toX);
+            info |= index << UNDO_INDEX_SHIFT;
+            currPlayer.addMyPieces(p);
+        } else {
+            int fromY = Board.rowOf(Move.from(move));
+            int fromX = Board.colOf(Move.from(move));
+            p = board.getPiece(fromY, fromX);
+
+            captured = board.getPiece(toY, toX);
+            if (captured != null) {
+                // the piece itself is left as it was, so unmakeMove only has to put it back
+                currPlayer.addToHand(captured.getType().capture());
+                getOpponent().removeMyPieces(captured);
+            }
+
+            if (!p.getIsPromoted() && (Move.isPromote(move) 
+                    || (p.getKind() == Piece.PAWN && toY == currPlayer.getPromotionRow()))) {
+                p.promote(toY, toX);
+                info |= UNDO_PROMOTED;
+            }
+            board.setPiece(null, fromY, fromX);
+        }
+
+        board.setPiece(p, toY, toX);
+        if (p.getKind() == Piece.KING) {
+            ((King) p).setCurrPos(toY, toX);
+        }
+
+        undoInfo[undoSize] = info;
+        undoCaptured[undoSize] = captured;
+        undoSize++;
+        history.add(move);
         switchCurrPlayer();
-        int[] kingXY = currPlayer.getKingPos();
+    }
 
-        if (p.canReach(startX, startY, kingXY[0], kingXY[1], board)) {
-            // piece p can reach king + opponent is in check
+    /**
+     * Takes back the last move played by makeMove
+     * 
+     * @return                  void
+     */
+    public void unmakeMove() {
+        switchCurrPlayer();
+        history.removeLast();
+        undoSize--;
+        int info = undoInfo[undoSize];
+        Piece captured = undoCaptured[undoSize];
+        undoCaptured[undoSize] = null;
+        int move = info & UNDO_MOVE_MASK;
+        int toY = Board.rowOf(Move.to(move));
+        int toX = Board.colOf(Move.to(move));
+        Piece p = board.getPiece(toY, toX);
+
+        if (Move.isDrop(move)) {
+            // put piece back in hand at the same index
+            board.setPiece(null, toY, toX);
+            currPlayer.removeMyPieces(p);
+            currPlayer.addToHand(info >>> UNDO_INDEX_SHIFT, p.getType());
+        } else {
+            int fromY = Board.rowOf(Move.from(move));
+            int fromX = Board.colOf(Move.from(move));
+            if ((info & UNDO_PROMOTED) != 0) {
+                p.unpromote();
+            }
+            board.setPiece(p, fromY, fromX);
+            if (p.getKind() == Piece.KING) {
+                ((King) p).setCurrPos(fromY, fromX);
+            }
+
+            if (captured != null) {
+                // the captured piece was never changed, only its entry in the hand has to go
+                currPlayer.removeFromHand(currPlayer.handSize() - 1);
+                getOpponent().addMyPieces(captured);
+            }
+            board.setPiece(captured, toY, toX);
+        }
+    }
+
+    private void growUndo() {
+        int capacity = undoInfo.length * 2;
+        undoInfo = Arrays.copyOf(undoInfo, capacity);
+        undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+    }
+
+    public Player getOpponent() {
+        return currPlayer == upper ? lower : upper;
+    }
+
+    /**
+     * checks if currPlayer's last move put the opponent's king in check, by the piece moved or by a piece it
+     * uncovered, from the board's attack maps (the same check makeMove's callers and generateLegalMoves use)
+     * 
+     * @return                  void
+     */
+    public void ifCheck() {
+        switchCurrPlayer();
+
+        if (board.isInCheck(currPlayer.getSide())) {
+            // opponent is in check
             setGameState(-1);
-            findAllMoves(p, startX, startY);
+            findAllMoves();
         }
 
         switchCurrPlayer();
@@ -445,147 +674,140 @@ public class PlayGame {
     
     /**
      * finds all possible moves to get currPlayer's king out of check
+     * A pawn moving into the promotion row is listed with and without "promote", both spellings get out of check
      * 
-     * @param op                Piece, opponent's piece that puts king in check
-     * @param startY            int, piece's starting y coordinate
-     * @param startX            int, piece's starting x coordinate
      * @return                  void
      */
-    public void findAllMoves(Piece op, int startX, int startY) {
-        // stores all squares between op and king (if any)
-        List<int[]> betweenSquares = new ArrayList<>();
-        
-        // get all moves for king
-        King k = null;
-        for (Piece p : currPlayer.getMyPieces()) {
-            if (p.getName().equalsIgnoreCase("d")) {
-                k = (King) p;
-                break;
+    public void findAllMoves() {
+        MoveBuffer allMoves = currPlayer.getAllMoves();
+        generateLegalMoves(allMoves);
+        int pawns = board.getPieceMask(currPlayer.getSide(), Piece.PAWN) & ~board.getPromotedMask();
+        int promotionRow = Board.ROW_MASKS[currPlayer.getPromotionRow()];
+        for (int i = 0, size = allMoves.size(); i < size; i++) {
+            int move = allMoves.get(i);
+            if (!Move.isDrop(move) && (pawns & (1 << Move.from(move))) != 0
+                    && (promotionRow & (1 << Move.to(move))) != 0) {
+                allMoves.add(Move.make(Move.from(move), Move.to(move), true));
             }
         }
-        int[] kingXY = k.getCurrPos();
-        int endX = kingXY[0];
-        int endY = kingXY[1];
-        for (String move : k.moves) {
-            // process king's move
-            int row = move.charAt(1) - '0';
-            int col = 1;
-            if (move.charAt(4) == '-') {
-                col *= -1;
-            }
-            col *= move.charAt(move.length() - 2) - '0';
+    }
 
-            // add move if legal
-            if (ifLegalMove(endX, endY, row, col, false)) {
-                String finalMove = "move " + board.convertPositionToString(new int[] {endX, endY})
-                        + " " + board.convertPositionToString(new int[] {row, col});
-                currPlayer.addToAllMoves(finalMove);
-            }
+    /**
+     * Generates every legal move, promotion and drop for currPlayer
+     * A pawn moving into the promotion row promotes anyway, so it is only generated without "promote"
+     * (interpretMove and findAllMoves accept both spellings)
+     * 
+     * @param buffer            MoveBuffer, cleared then filled with packed moves
+     * @return                  int, number of legal moves
+     */
+    public int generateLegalMoves(MoveBuffer buffer) {
+        buffer.clear();
+        int side = currPlayer.getSide();
+        int own = board.getSideMask(side);
+        int occupied = board.getOccupiedMask();
+        int promoted = board.getPromotedMask();
+        int kingSquare = board.getKingSquare(side);
+        int promotionRow = Board.ROW_MASKS[currPlayer.getPromotionRow()];
+
+        // computed once per position instead of testing every move: pinned pieces stay on their line to the king
+        // and when in check other pieces must capture the checker or block it (nothing does against two checkers)
+        int pinned = board.pinnedPieces(side);
+        int evasions = Board.ALL_SQUARES;
+        if (board.isInCheck(side)) {
+            int checkers = board.attackersTo(kingSquare, 1 - side, occupied);
+            int checker = Integer.numberOfTrailingZeros(checkers);
+            evasions = (checkers & (checkers - 1)) != 0 ? 0 : checkers | Board.BETWEEN[checker][kingSquare];
         }
-        
-        // find between squares
-        if (op.getName().equalsIgnoreCase("g") || op.getName().equalsIgnoreCase("g+")) {
-            // op is a bishop
-            int directionX = -1;
-            int directionY = -1;
-            if (startX < endX) {
-                // moving upwards
-                directionX = 1;
-            }
-            if (startY < endY) {
-                // moving left
-                directionY = 1;
-            }
-            int[] addOn = new int[] {directionX, directionY};
-            for (int multiplier = 1; multiplier < board.BOARD_SIZE; multiplier++) {
-                // bishop moves diagonally
-                int newPosX = startX + (multiplier * addOn[0]);
-                int newPosY = startY + (multiplier * addOn[1]);
-                if (newPosX < 0 || newPosY < 0 || newPosX >= board.BOARD_SIZE || newPosY >= board.BOARD_SIZE) {
-                    // any further in this direction is out of bounds
-                    break;
-                }
-                if (newPosX == endX && newPosY == endY) {
-                    break;
-                }
-                if (!board.isOccupied(newPosX, newPosY)) {
-                    // found betwween square
-                    betweenSquares.add(new int[] {newPosX, newPosY});
-                }
-            }
-        } else if (op.getName().equalsIgnoreCase("n") || op.getName().equalsIgnoreCase("n+")) {
-            // op is a rook
-            int rookX = startX;
-            int rookY = startY;
-            if (rookX == endX) {
-                // moving right
-                if (endY < rookY) {
-                    int temp = rookY;
-                    rookY = endY;
-                    endY = temp;
-                }
 
-                // check for obstructions on path between startPos and endPos
-                for (int col = rookY + 1; col < endY; col++) {
-                    if (!board.isOccupied(rookX, col)) {
-                        // found between square
-                        betweenSquares.add(new int[] {endX, col});
+        // moves + promotions for pieces on the board
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            for (int isPromoted = 0; isPromoted < 2; isPromoted++) {
+                int pieces = board.getPieceMask(side, kind) & (isPromoted == 1 ? promoted : ~promoted);
+                boolean canPromote = isPromoted == 0 && kind != Piece.KING && kind != Piece.GOLD_GENERAL
+                        && kind != Piece.PAWN;
+                for (; pieces != 0; pieces &= pieces - 1) {
+                    int from = Integer.numberOfTrailingZeros(pieces);
+                    int targets = Attacks.getAttacks(kind, side, isPromoted == 1, from, occupied) & ~own;
+                    if (kind != Piece.KING) {
+                        targets &= evasions;
+                        if ((pinned & (1 << from)) != 0) {
+                            targets &= Board.LINE[kingSquare][from];
+                        }
                     }
-                }
-            } else if (rookY == endY) {
-                // moving down
-                if (endX < rookX) {
-                    int temp = rookX;
-                    rookX = endX;
-                    endX = temp;
-                }
-
-                // check for obstructions on path between startPos and endPos
-                for (int row = rookX + 1; row < endX; row++) {
-                    if (!board.isOccupied(row, rookY)) {
-                        // found between square
-                        betweenSquares.add(new int[] {row, endY});
+                    for (; targets != 0; targets &= targets - 1) {
+                        int to = Integer.numberOfTrailingZeros(targets);
+                        if (kind == Piece.KING && !isKingMoveSafe(from, to)) {
+                            continue;
+                        }
+                        buffer.add(Move.make(from, to, false));
+                        if (canPromote && ((1 << from | 1 << to) & promotionRow) != 0) {
+                            buffer.add(Move.make(from, to, true));
+                        }
                     }
                 }
-            } 
+            }
         }
-        // count op's current location as between square for now
-        int[] startXY = new int[] {startX, startY};
-        betweenSquares.add(startXY);
 
-        for (int[] endXY : betweenSquares) {
-            // get all moves for currPlayer's other pieces
-            for (int row = 0; row < board.BOARD_SIZE; row++) {
-                for (int col = 0; col < board.BOARD_SIZE; col++) {
-                    if (board.isOccupied(row, col)) {
-                        // check if piece can block/capture to avoid checkmate
-                        Piece p = board.getPiece(row, col);
-                        if (currPlayer.getMyPieces().contains(p) && !p.getName().equalsIgnoreCase("d")
-                                && p.canReach(row, col, endXY[0], endXY[1], board)) {
-                            // piece can reach square so add move as option
-                            String move = "move " + board.convertPositionToString(new int[]{row, col})
-                                    + " " + board.convertPositionToString(new int[]{endXY[0], endXY[1]});
-                            currPlayer.addToAllMoves(move);
-
-                            // add promotion as option if possible
-                            if (row == currPlayer.getPromotionRow() && !p.getName().equalsIgnoreCase("s")) {
-                                String promotion = move + " promote";
-                                currPlayer.addToAllMoves(promotion);
-                            }
-                        }
-                    }
-                }
+        // drops onto empty squares, a drop never exposes the king so it only has to block when in check
+        int empty = ~occupied & evasions;
+        for (int kind = Piece.ROOK; kind < Piece.NUM_KINDS; kind++) {
+            if (!currPlayer.hasInHand(kind)) {
+                continue;
+            }
+            int targets = empty;
+            if (kind == Piece.PAWN) {
+                targets &= ~promotionRow & ~pawnDropBlocked(side);
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                buffer.add(Move.drop(kind, Integer.numberOfTrailingZeros(targets)));
             }
         }
-        betweenSquares.remove(startXY);
-        
-        for (int[] endXY : betweenSquares) {
-            // add drop as option if possible
-            for (Piece p : currPlayer.getCapturedPieces()) {
-                String move = "drop " + p.getName().toLowerCase() + " " + board.convertPositionToString(new int[] {endXY[0], endXY[1]});
-                currPlayer.addToAllMoves(move);
+        return buffer.size();
+    }
+
+    /**
+     * Checks if currPlayer's king can move from one square to another without being attacked, using the attack maps
+     * The only squares the maps get wrong are the ones behind the king on the line of a rook/bishop checking it,
+     * the king blocks that line now but not once it steps along it
+     * 
+     * @param from              int, king's square
+     * @param to                int, square the king moves to (any opponent piece there is captured)
+     * @return                  boolean, true = king is not attacked, false = king is attacked
+     */
+    private boolean isKingMoveSafe(int from, int to) {
+        int opponent = 1 - currPlayer.getSide();
+        if (board.isAttacked(to, opponent)) {
+            return false;
+        }
+        for (int sliders = board.sliderAttackersTo(from, opponent); sliders != 0; sliders &= sliders - 1) {
+            if ((Board.BETWEEN[Integer.numberOfTrailingZeros(sliders)][to] & (1 << from)) != 0) {
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Gets the squares side cannot drop a pawn on besides the promotion row: cols that already hold one of side's
+     * unpromoted pawns and the square right in front of the opponent's king
+     * 
+     * @param side              int, side dropping the pawn
+     * @return                  int, set of blocked squares
+     */
+    private int pawnDropBlocked(int side) {
+        int blocked = 0;
+        for (int pawns = board.getPieceMask(side, Piece.PAWN) & ~board.getPromotedMask(); pawns != 0; pawns &= pawns - 1) {
+            blocked |= Board.COL_MASKS[Board.colOf(Integer.numberOfTrailingZeros(pawns))];
+        }
+        int enemyKing = board.getKingSquare(1 - side);
+        if (enemyKing >= 0) {
+            // pawn moves towards row 4 for upper and row 0 for lower
+            int behindKing = side == Player.UPPER_SIDE ? enemyKing - board.BOARD_SIZE : enemyKing + board.BOARD_SIZE;
+            if (behindKing >= 0 && behindKing < 25) {
+                blocked |= 1 << behindKing;
+            }
+        }
+        return blocked;
     }
 
     /**
@@ -594,10 +816,19 @@ public class PlayGame {
      * @return                  void
      */
     public String gameStateToString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(board.toString() + "\n");
-        sb.append("Captures " + Player.upper + ":" + upper.capturedPiecesToString() + "\n");
-        sb.append("Captures " + Player.lower + ":" + lower.capturedPiecesToString() + "\n");
-        return sb.toString();
+        return appendGameState(new StringBuilder(192)).toString();
+    }
+
+    /**
+     * Writes the game state exactly like gameStateToString into sb, so output can reuse one StringBuilder
+     * 
+     * @param sb                StringBuilder, where to write
+     * @return                  StringBuilder, sb
+     */
+    public StringBuilder appendGameState(StringBuilder sb) {
+        board.appendTo(sb).append('\n');
+        upper.appendCapturedPieces(sb.append("Captures ").append(Player.upper).append(':')).append('\n');
+        lower.appendCapturedPieces(sb.append("Captures ").append(Player.lower).append(':')).append('\n');
+        return sb;
     }
 }
@@ -5,50 +5,78 @@ public class Player {
     
     public final static String upper = "UPPER";
     public final static String lower = "lower";
+    // side indices, used to index the board's bitboards
+    public final static int LOWER_SIDE = 0;
+    public final static int UPPER_SIDE = 1;
+    // the hand packs the number of captured pieces of each kind into one int, HAND_BITS bits per kind
+    public final static int HAND_BITS = 5;
+    public final static int MAX_HAND_COUNT = (1 << HAND_BITS) - 1;
     
-    private List<Piece> capturedPieces;     // capturedPieces stores a player's current captured pieces
     private Set<Piece> myPieces;            // myPieces stores a player's current pieces on the board
     private String type;
+    private int side;
     private int promotionRow;
-    private List<String> allMoves;
+    private int hand;                       // count of captured pieces of each kind, see handCount
+    private PieceType[] handOrder;          // captured pieces in the order they were captured, for printing only
+    private int handSize;                   // number of captured pieces
+    private long handHash;                  // Zobrist hash of the hand counts
+    private EvalWeights evalWeights;        // weights handEval is kept with, null = handEval is not kept
+    private int handEval;                   // evalWeights score of the hand counts
+    private MoveBuffer allMoves;            // allMoves stores the packed moves that get a player out of check
 
     public Player(String type) {
         // upper player type = 1 and lower player type = 0
         this.type = type;
         if (type.equals(lower)) {
+            side = LOWER_SIDE;
             promotionRow = 0;
         } else {
+            side = UPPER_SIDE;
             promotionRow = 4;
         }
-        capturedPieces = new ArrayList<>();
+        handOrder = new PieceType[8];
         myPieces = new HashSet<>();
-        allMoves = new ArrayList<>();
+        allMoves = new MoveBuffer();
     }
 
     public String getType() {
         return type;
     }
 
+    public int getSide() {
+        return side;
+    }
+
     public int getPromotionRow() {
         return promotionRow;
     }
 
-    public List<Piece> getCapturedPieces() {
-        return capturedPieces;
-    }
-    
     public Set<Piece> getMyPieces() {
         return myPieces;
     }
     
-    public List<String> getAllMoves() {
+    public MoveBuffer getAllMoves() {
         return allMoves;
     }
 
-    public void addToAllMoves(String move) {
+    public void addToAllMoves(int move) {
         allMoves.add(move);
     }
 
+    /**
+     * Converts allMoves to user input version of moves, sorted for printing
+     * 
+     * @return                  List<String>, sorted moves like "move a1 a2" or "drop n e2"
+     */
+    public List<String> allMovesToStrings() {
+        List<String> strings = new ArrayList<>(allMoves.size());
+        for (int i = 0; i < allMoves.size(); i++) {
+            strings.add(Move.toString(allMoves.get(i)));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+
     /**
      * Get king's current position from myPieces
      * 
@@ -57,8 +85,7 @@ public class Player {
     public int[] getKingPos() {
         King k = null;
         for (Piece p : myPieces) {
-            String name = p.getName();
-            if (name.equalsIgnoreCase("d")) {
+            if (p.getKind() == Piece.KING) {
                 // found king
                 k = (King) p;
             }
@@ -75,34 +102,162 @@ public class Player {
     }
 
     /**
-     * Get a specific piece from player's captured pieces based on String s
+     * Gets the hand as packed counts, the same captured pieces in any order give the same hand
      * 
-     * @param s                 String, String representation of piece
-     * @return                  Piece, current (y, x) coordinates of king
+     * @return                  int, HAND_BITS bit count of each kind, kind 0 in the lowest bits
      */
-    public Piece getACapturedPiece(String s) {
-        for (Piece p : capturedPieces) {
-            if (p.getName().toLowerCase().equals(s)) {
-                return p;
-            }
+    public int getHand() {
+        return hand;
+    }
+
+    /**
+     * Gets the number of captured pieces of a kind
+     * 
+     * @param kind              int, piece kind like Piece.PAWN
+     * @return                  int, number of captured pieces of that kind
+     */
+    public int handCount(int kind) {
+        return (hand >>> (kind * HAND_BITS)) & MAX_HAND_COUNT;
+    }
+
+    public boolean hasInHand(int kind) {
+        return (hand & (MAX_HAND_COUNT << (kind * HAND_BITS))) != 0;
+    }
+
+    public int handSize() {
+        return handSize;
+    }
+
+    /**
+     * Gets a captured piece in the order the pieces were captured
+     * 
+     * @param index             int, from 0 to handSize() - 1
+     * @return                  PieceType, what the piece is, as it was captured or listed in a game file
+     */
+    public PieceType getHandPiece(int index) {
+        return handOrder[index];
+    }
+
+    public void addToHand(PieceType type) {
+        addToHand(handSize, type);
+    }
+
+    /**
+     * Adds a captured piece to the hand
+     * 
+     * @param index             int, where to print it among the captured pieces, from 0 to handSize()
+     * @param type              PieceType, what the piece is
+     * @return                  void
+     */
+    public void addToHand(int index, PieceType type) {
+        updateHand(type.getKind(), 1);
+        if (handSize == handOrder.length) {
+            handOrder = Arrays.copyOf(handOrder, handSize * 2);
+        }
+        System.arraycopy(handOrder, index, handOrder, index + 1, handSize - index);
+        handOrder[index] = type;
+        handSize++;
+    }
+
+    /**
+     * Takes a captured piece out of the hand
+     * 
+     * @param index             int, from 0 to handSize() - 1
+     * @return                  PieceType, what the piece is
+     */
+    public PieceType removeFromHand(int index) {
+        PieceType type = handOrder[index];
+        updateHand(type.getKind(), -1);
+        handSize--;
+        System.arraycopy(handOrder, index + 1, handOrder, index, handSize - index);
+        handOrder[handSize] = null;
+        return type;
+    }
+
+    /**
+     * Gets where the first captured piece of a kind is printed, the one a drop of that kind takes
+     * 
+     * @param kind              int, piece kind like Piece.PAWN
+     * @return                  int, index for getHandPiece or -1 if there is none
+     */
+    public int indexInHand(int kind) {
+        if (!hasInHand(kind)) {
+            return -1;
+        }
+        int i = 0;
+        while (handOrder[i].getKind() != kind) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Changes the count of a kind in hand and swaps its Zobrist key
+     * 
+     * @param kind              int, piece kind like Piece.PAWN
+     * @param change            int, +1 = piece added, -1 = piece removed
+     * @return                  void
+     */
+    private void updateHand(int kind, int change) {
+        int count = handCount(kind);
+        if (count + change > MAX_HAND_COUNT) {
+            throw new IllegalStateException("More than " + MAX_HAND_COUNT + " captured pieces of one kind");
         }
-        return null;
+        handHash ^= Zobrist.handKey(side, kind, count) ^ Zobrist.handKey(side, kind, count + change);
+        if (evalWeights != null) {
+            handEval += evalWeights.handScore(side, kind, count + change) - evalWeights.handScore(side, kind, count);
+        }
+        hand += change << (kind * HAND_BITS);
     }
 
-    public void addCapturedPieces(Piece p) {
-        capturedPieces.add(p);
+    public long getHandHash() {
+        return handHash;
     }
 
-    public void removeCapturedPieces(Piece p) {
-        capturedPieces.remove(p);
+    /**
+     * Starts keeping the score of the hand with weights
+     * 
+     * @param weights           EvalWeights, weights to score with, null stops keeping the score
+     * @return                  void
+     */
+    public void setEvalWeights(EvalWeights weights) {
+        evalWeights = weights;
+        handEval = weights == null ? 0 : getHandEval(weights);
+    }
+
+    public int getHandEval() {
+        return handEval;
+    }
+
+    /**
+     * Scores the hand with weights by counting it, whatever weights the score is kept with
+     * 
+     * @param weights           EvalWeights, weights to score with
+     * @return                  int, score, positive = better for lower
+     */
+    public int getHandEval(EvalWeights weights) {
+        int score = 0;
+        for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+            score += weights.handScore(side, kind, handCount(kind));
+        }
+        return score;
     }
 
     public String capturedPiecesToString() {
-        StringBuilder sb = new StringBuilder();
-        for (Piece p : capturedPieces) {
-            sb.append(" " + p.getName());
+        return appendCapturedPieces(new StringBuilder()).toString();
+    }
+
+    /**
+     * Writes the captured pieces exactly like capturedPiecesToString into sb
+     * 
+     * @param sb                StringBuilder, where to write
+     * @return                  StringBuilder, sb
+     */
+    public StringBuilder appendCapturedPieces(StringBuilder sb) {
+        for (int i = 0; i < handSize; i++) {
+            sb.append(' ').append(handOrder[i].getName());
         }
-        return sb.toString();
+        return sb;
     }
 
 }
@@ -0,0 +1,349 @@
+package src;
+
+/*
+ * Description: iterative deepening negamax search with alpha-beta pruning over a game's legal moves, played in
+ * place with makeMove/unmakeMove. Stops when a time or node budget runs out and returns the best move of the
+ * last completed depth. An optional TranspositionTable, which may be shared with other searches, cuts off
+ * positions already searched deep enough and orders their best move first.
+ */
+
+public class Search {
+
+    public static final int MATE = 100000;          // score of being checkmated at the root, less per ply
+    public static final int INFINITY = 1000000;
+    public static final int MAX_DEPTH = 64;
+    private static final int CHECK_EVERY = 63;      // nodes between checks of the clock, plus one
+    // the clock is only read every CHECK_EVERY + 1 nodes and unwinding takes a moment, so searches stop this
+    // share of their time budget early to return within it
+    private static final int TIME_MARGIN_PERCENT = 10;
+
+    /*
+     * Best move found by a search
+     */
+    public static class Result {
+        public final int move;      // packed move, Move.NONE if there are no legal moves
+        public final int score;     // score for the side to move
+        public final long nodes;    // positions visited
+        public final int depth;     // depth of the last completed iteration
+
+        public Result(int move, int score, long nodes, int depth) {
+            this.move = move;
+            this.score = score;
+            this.nodes = nodes;
+            this.depth = depth;
+        }
+
+        public String toString() {
+            return (move == Move.NONE ? "none" : Move.toString(move)) + " depth " + depth + " score " + score
+                    + " nodes " + nodes;
+        }
+    }
+
+    private PlayGame game;
+    private Evaluator evaluator;
+    private TranspositionTable table;   // null = no transposition table
+    private MoveBuffer[] buffers;       // one move buffer per ply so searching never allocates
+    private int[][] orderKeys;          // move ordering scratch per ply
+    private long nodes;
+    private long deadline;              // System.nanoTime() to stop at, 0 = no time limit
+    private long maxNodes;              // nodes to stop at, 0 = no node limit
+    private boolean stopped;
+
+    public Search(PlayGame game) {
+        this(game, new PieceSquareEvaluator());
+    }
+
+    public Search(PlayGame game, Evaluator evaluator) {
+        this(game, evaluator, null);
+    }
+
+    /**
+     * Makes a search of game, letting evaluator prepare the game (see Evaluator.prepare) before any search
+     * 
+     * @param game              PlayGame, game to search, moves are played and taken back in place
+     * @param evaluator         Evaluator, scores the positions searched
+     * @param table             TranspositionTable, null = none
+     */
+    public Search(PlayGame game, Evaluator evaluator, TranspositionTable table) {
+        this.game = game;
+        this.evaluator = evaluator;
+        this.table = table;
+        evaluator.prepare(game);
+        buffers = new MoveBuffer[0];
+        orderKeys = new int[0][];
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return                  boolean, true = the last search ran out of its budget before finishing
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Searches the current position to a fixed depth
+     *
+     * @param depth             int, number of plies to search, at least 1
+     * @return                  Result, best move (the first one on equal scores) and its score
+     */
+    public Result search(int depth) {
+        return search(depth, 0, 0);
+    }
+
+    /**
+     * Searches the current position one ply deeper at a time until maxDepth or a budget runs out
+     *
+     * @param maxDepth          int, deepest iteration, at least 1
+     * @param millis            long, time budget in milliseconds, 0 = none
+     * @param maxNodes          long, node budget, 0 = none
+     * @return                  Result, best move of the last completed iteration
+     */
+    public Result search(int maxDepth, long millis, long maxNodes) {
+        maxDepth = Math.min(maxDepth, MAX_DEPTH);
+        ensureBuffers(maxDepth);
+        this.nodes = 0;
+        this.deadline = deadline(millis);
+        this.maxNodes = maxNodes;
+        this.stopped = false;
+
+        MoveBuffer roots = new MoveBuffer();
+        int numMoves = game.generateLegalMoves(roots);
+        if (numMoves == 0) {
+            return new Result(Move.NONE, game.getBoard().isInCheck(game.getCurrPlayer().getSide()) ? -MATE : 0, 0, 0);
+        }
+        orderMoves(roots, 0);
+        if (table != null) {
+            table.newSearch();
+            moveToFront(roots, TranspositionTable.move(table.probe(game.getHash())));
+        }
+
+        // fall back on the first ordered move if not even depth 1 completes
+        Result best = new Result(roots.get(0), 0, 0, 0);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int bestMove = Move.NONE;
+            int alpha = -INFINITY;
+            for (int i = 0; i < numMoves; i++) {
+                game.makeMove(roots.get(i));
+                int score = -alphaBeta(depth - 1, 1, -INFINITY, -alpha);
+                game.unmakeMove();
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = roots.get(i);
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            best = new Result(bestMove, alpha, nodes, depth);
+            moveToFront(roots, bestMove);
+            if (table != null) {
+                table.store(game.getHash(), bestMove, alpha, depth, TranspositionTable.EXACT, 0);
+            }
+            if (Math.abs(alpha) >= MATE - MAX_DEPTH) {
+                // forced mate found, deeper iterations cannot change it
+                break;
+            }
+        }
+        return new Result(best.move, best.score, nodes, best.depth);
+    }
+
+    /**
+     * Scores a single root move depth plies deep, with no budget
+     *
+     * @param move              int, packed legal move of the current position
+     * @param depth             int, number of plies to search including move, at least 1
+     * @return                  int, score of move for the side to move
+     */
+    public int searchMove(int move, int depth) {
+        return searchMove(move, depth, 0);
+    }
+
+    /**
+     * Scores a single root move depth plies deep, giving up at deadline
+     *
+     * @param move              int, packed legal move of the current position
+     * @param depth             int, number of plies to search including move, at least 1
+     * @param deadline          long, System.nanoTime() to stop at, 0 = no time limit
+     * @return                  int, score of move for the side to move, meaningless if isStopped()
+     */
+    public int searchMove(int move, int depth, long deadline) {
+        ensureBuffers(depth);
+        this.deadline = deadline;
+        maxNodes = 0;
+        stopped = false;
+        checkLimits();
+        if (stopped) {
+            // queued behind other root moves until the time ran out
+            return 0;
+        }
+        game.makeMove(move);
+        int score = -alphaBeta(depth - 1, 1, -INFINITY, INFINITY);
+        game.unmakeMove();
+        return score;
+    }
+
+    /**
+     * Gets the System.nanoTime() a search with a time budget starting now has to stop at
+     *
+     * @param millis            long, time budget in milliseconds, 0 = none
+     * @return                  long, deadline, 0 = no time limit
+     */
+    static long deadline(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return System.nanoTime() + millis * 1_000_000 / 100 * (100 - TIME_MARGIN_PERCENT);
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & CHECK_EVERY) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(game);
+        }
+
+        long hash = game.getHash();
+        int tableMove = Move.NONE;
+        if (table != null) {
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                tableMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry, ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        MoveBuffer moves = buffers[ply];
+        int numMoves = game.generateLegalMoves(moves);
+        if (numMoves == 0) {
+            // checkmated = lost, prefer the longest way to lose. Without a check it is not a loss by the rules, the
+            // referee only ends a game on checkmate, so a stalemate scores as even
+            if (game.getBoard().isInCheck(game.getCurrPlayer().getSide())) {
+                return -MATE + ply;
+            }
+            return 0;
+        }
+        orderMoves(moves, ply);
+        if (tableMove != Move.NONE) {
+            // only found moves are moved, so a move from a colliding hash is never played
+            moveToFront(moves, tableMove);
+        }
+
+        int alphaStart = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < numMoves; i++) {
+            game.makeMove(moves.get(i));
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = moves.get(i);
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        // opponent will not allow this line
+                        break;
+                    }
+                }
+            }
+        }
+        if (table != null) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best > alphaStart ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(hash, bestMove, best, depth, bound, ply);
+        }
+        return best;
+    }
+
+    private void checkLimits() {
+        if ((deadline != 0 && System.nanoTime() >= deadline) || (maxNodes != 0 && nodes >= maxNodes)) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Sorts moves so captures of valuable pieces and promotions are searched first, which prunes the most
+     *
+     * @param moves             MoveBuffer, moves to sort in place
+     * @param ply               int, ply of moves, selects the scratch keys
+     * @return                  void
+     */
+    private void orderMoves(MoveBuffer moves, int ply) {
+        Board board = game.getBoard();
+        if (orderKeys[ply].length < moves.size()) {
+            orderKeys[ply] = new int[moves.size() * 2];
+        }
+        int[] keys = orderKeys[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int key = 0;
+            if (!Move.isDrop(move)) {
+                int to = Move.to(move);
+                Piece captured = board.getPiece(Board.rowOf(to), Board.colOf(to));
+                if (captured != null) {
+                    key += 10 * MaterialEvaluator.VALUES[captured.getKind()] + 1;
+                }
+                if (Move.isPromote(move)) {
+                    key += 3000;
+                }
+            }
+
+            // insertion sort, highest key first, equal keys keep generation order
+            int j = i;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                moves.set(j, moves.get(j - 1));
+                j--;
+            }
+            keys[j] = key;
+            moves.set(j, move);
+        }
+    }
+
+    private static void moveToFront(MoveBuffer moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                for (int j = i; j > 0; j--) {
+                    moves.set(j, moves.get(j - 1));
+                }
+                moves.set(0, move);
+                return;
+            }
+        }
+    }
+
+    private void ensureBuffers(int depth) {
+        if (buffers.length < depth + 1) {
+            MoveBuffer[] grown = new MoveBuffer[depth + 1];
+            int[][] grownKeys = new int[depth + 1][];
+            for (int ply = 0; ply < grown.length; ply++) {
+                grown[ply] = ply < buffers.length ? buffers[ply] : new MoveBuffer();
+                grownKeys[ply] = ply < orderKeys.length ? orderKeys[ply] : new int[128];
+            }
+            buffers = grown;
+            orderKeys = grownKeys;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package src;
+
+import java.util.ArrayList;
+
+/*
+ * Description: one-line position notation in the style of SFEN, using this game's piece letters:
+ *
+ *      <board> <side to move> <captures> <move number>
+ *
+ * board:           rows from 5 down to 1 separated by '/', each row from col a to e; a piece is its letter
+ *                  (uppercase for UPPER, '+' before a promoted piece) and a digit counts empty squares
+ * side to move:    'l' for lower, 'u' for UPPER
+ * captures:        UPPER's captured pieces, '/', then lower's, each in the order they were captured, or '-' if
+ *                  neither player has any (a captured piece keeps its own letter, whose hand it is in comes from
+ *                  the side of the '/' it is on)
+ * move number:     moves played so far plus one, at most PlayGame.MOVE_LIMIT + 2 (a check at the move limit
+ *                  is answered before the game ties)
+ *
+ * The starting position is "NGRSD/4P/5/p4/dsrgn l - 1". A position must have one king per side and the side not
+ * to move cannot be in check; a side to move in check is given its moves out of check (or is checkmated) exactly
+ * as if the position had been reached by a move.
+ */
+
+public class Sfen {
+
+    /**
+     * Appends the notation of a game's position to sb
+     *
+     * @param game              PlayGame, position to write
+     * @param sb                StringBuilder, where to write
+     * @return                  StringBuilder, sb
+     */
+    public static StringBuilder append(PlayGame game, StringBuilder sb) {
+        Board board = game.getBoard();
+        for (int row = 0; row < 5; row++) {
+            if (row > 0) {
+                sb.append('/');
+            }
+            int empty = 0;
+            for (int col = 0; col < 5; col++) {
+                Piece p = board.getPiece(row, col);
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                sb.append(p.getName());
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+        }
+
+        sb.append(game.getCurrPlayer().getSide() == Player.UPPER_SIDE ? " u " : " l ");
+        Player upperHand = game.getPlayer(Player.UPPER_SIDE);
+        Player lowerHand = game.getPlayer(Player.LOWER_SIDE);
+        if (upperHand.handSize() == 0 && lowerHand.handSize() == 0) {
+            sb.append('-');
+        } else {
+            for (int i = 0; i < upperHand.handSize(); i++) {
+                sb.append(upperHand.getHandPiece(i).getName());
+            }
+            sb.append('/');
+            for (int i = 0; i < lowerHand.handSize(); i++) {
+                sb.append(lowerHand.getHandPiece(i).getName());
+            }
+        }
+        return sb.append(' ').append(game.getNumMoves() + 1);
+    }
+
+    /**
+     * Makes a game from a position's notation, read in place without copying it
+     *
+     * @param s                 CharSequence, notation like "NGRSD/4P/5/p4/dsrgn l - 1"
+     * @return                  PlayGame, game at that position
+     */
+    public static PlayGame parse(CharSequence s) {
+        PlayGame game = new PlayGame(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Board board = game.getBoard();
+        int i = 0;
+        int row = 0;
+        int col = 0;
+        while (true) {
+            char c = charAt(s, i++);
+            if (c == ' ') {
+                break;
+            } else if (c == '/') {
+                if (col != 5) {
+                    throw bad(s, "row " + (5 - row) + " does not have 5 squares");
+                }
+                row++;
+                col = 0;
+            } else if (c >= '1' && c <= '5') {
+                col += c - '0';
+            } else {
+                boolean promoted = c == '+';
+                if (promoted) {
+                    c = charAt(s, i++);
+                }
+                if (row > 4 || col > 4) {
+                    throw bad(s, "too many squares");
+                }
+                Piece p = makePiece(s, c, promoted, row, col);
+                board.setPiece(p, row, col);
+                game.getPlayer(p.getSide()).addMyPieces(p);
+                col++;
+            }
+            if (col > 5) {
+                throw bad(s, "row " + (5 - row) + " has more than 5 squares");
+            }
+        }
+        if (row != 4 || col != 5) {
+            throw bad(s, "board does not have 5 rows of 5 squares");
+        }
+
+        char side = charAt(s, i++);
+        if ((side != 'l' && side != 'u') || charAt(s, i++) != ' ') {
+            throw bad(s, "side to move must be l or u");
+        }
+        if (side == 'u') {
+            game.switchCurrPlayer();
+        }
+
+        if (charAt(s, i) == '-') {
+            i++;
+        } else {
+            Player hand = game.getPlayer(Player.UPPER_SIDE);
+            while (charAt(s, i) != ' ') {
+                char c = charAt(s, i++);
+                if (c == '/' && hand.getSide() == Player.UPPER_SIDE) {
+                    hand = game.getPlayer(Player.LOWER_SIDE);
+                    continue;
+                }
+                boolean promoted = c == '+';
+                if (promoted) {
+                    c = charAt(s, i++);
+                }
+                // captured pieces have {0, 0} location
+                Piece p = makePiece(s, c, promoted, 0, 0);
+                if (p.getKind() == Piece.KING) {
+                    throw bad(s, "a king cannot be captured");
+                }
+                hand.addToHand(p.getType());
+            }
+            if (hand.getSide() == Player.UPPER_SIDE) {
+                throw bad(s, "captures must be written as UPPER's/lower's");
+            }
+        }
+        if (charAt(s, i++) != ' ') {
+            throw bad(s, "missing move number");
+        }
+
+        int moveNumber = 0;
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || moveNumber > PlayGame.MOVE_LIMIT + 2) {
+                throw bad(s, "bad move number");
+            }
+            moveNumber = moveNumber * 10 + c - '0';
+        }
+        if (moveNumber < 1 || moveNumber > PlayGame.MOVE_LIMIT + 2) {
+            throw bad(s, "move number must be between 1 and " + (PlayGame.MOVE_LIMIT + 2));
+        }
+        game.setNumMoves(moveNumber - 1);
+        refereePosition(s, game);
+        return game;
+    }
+
+    /**
+     * Checks a parsed position can be reached in a game and sets its check state like the move reaching it would
+     *
+     * @param s                 CharSequence, notation of the position, for error messages
+     * @param game              PlayGame, parsed game
+     * @return                  void
+     */
+    private static void refereePosition(CharSequence s, PlayGame game) {
+        Board board = game.getBoard();
+        for (int side = Player.LOWER_SIDE; side <= Player.UPPER_SIDE; side++) {
+            if (Integer.bitCount(board.getPieceMask(side, Piece.KING)) != 1) {
+                throw bad(s, "each side must have one king");
+            }
+        }
+        int side = game.getCurrPlayer().getSide();
+        if (board.isInCheck(1 - side)) {
+            throw bad(s, "the side not to move is in check");
+        }
+        if (board.isInCheck(side)) {
+            // same as after a checking move: offer the moves out of check, none = checkmate
+            game.setGameState(-1);
+            game.findAllMoves();
+            if (game.getCurrPlayer().getAllMoves().isEmpty()) {
+                game.setGameState(1);
+            }
+        }
+        if (game.getGameState() == 0 && game.getNumMoves() >= PlayGame.MOVE_LIMIT) {
+            // game reached the move limit, like refereeMove it ends in a tie
+            game.setGameState(3);
+        }
+    }
+
+    private static Piece makePiece(CharSequence s, char letter, boolean promoted, int row, int col) {
+        try {
+            return GameReader.makePiece(letter, promoted, row, col);
+        } catch (IllegalArgumentException e) {
+            throw bad(s, e.getMessage());
+        }
+    }
+
+    private static char charAt(CharSequence s, int i) {
+        if (i >= s.length()) {
+            throw bad(s, "ends early");
+        }
+        return s.charAt(i);
+    }
+
+    private static IllegalArgumentException bad(CharSequence s, String reason) {
+        return new IllegalArgumentException("Bad position \"" + s + "\": " + reason);
+    }
+}
@@ -0,0 +1,140 @@
+package src;
+
+/*
+ * Description: fixed-size transposition table packed into a long[], shareable by search threads without locks.
+ * Each entry is two longs, (hash ^ data) and data. A reader only trusts an entry when XORing them gives back
+ * its hash, so an entry torn by two threads writing at once reads as a miss instead of as wrong data.
+ *
+ * Entries live in buckets of two: the first keeps the deepest result (replaced by an equal or deeper search or
+ * by any search once it is from an older generation), the second is always replaced.
+ *
+ * data bits 0-14 = best move, 15-34 = score + SCORE_OFFSET, 35-41 = depth, 42-43 = bound, 44-51 = generation
+ */
+
+public class TranspositionTable {
+
+    public static final int EXACT = 1;      // score is exact
+    public static final int LOWER = 2;      // score is a lower bound (search failed high)
+    public static final int UPPER = 3;      // score is an upper bound (search failed low)
+
+    private static final int SCORE_OFFSET = 1 << 19;
+    private static final int BUCKET_LONGS = 4;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * Makes an empty table using about megabytes of memory, rounded down to a power of two number of buckets
+     *
+     * @param megabytes         int, memory to use, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, (long) megabytes << 20) / (BUCKET_LONGS * 8L));
+        buckets = Math.min(buckets, 1 << 28);
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Starts a new search, older entries become the first to be replaced
+     *
+     * @return                  void
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 255;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(table, 0);
+        generation = 0;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param hash              long, position's Zobrist hash
+     * @return                  long, entry data or 0 if the position is not stored
+     */
+    public long probe(long hash) {
+        int i = bucket(hash);
+        for (int slot = 0; slot < BUCKET_LONGS; slot += 2) {
+            long data = table[i + slot + 1];
+            if ((table[i + slot] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result for a position
+     *
+     * @param hash              long, position's Zobrist hash
+     * @param move              int, best packed move or Move.NONE
+     * @param score             int, score for the side to move
+     * @param depth             int, depth searched
+     * @param bound             int, EXACT, LOWER or UPPER
+     * @param ply               int, distance from the root, mate scores are stored relative to the position
+     * @return                  void
+     */
+    public void store(long hash, int move, int score, int depth, int bound, int ply) {
+        if (score > Search.MATE - Search.MAX_DEPTH) {
+            score += ply;
+        } else if (score < -Search.MATE + Search.MAX_DEPTH) {
+            score -= ply;
+        }
+        int gen = generation;
+        long data = (move & 0x7FFFL) | ((long) (score + SCORE_OFFSET) << 15) | ((long) Math.min(depth, 127) << 35)
+                | ((long) bound << 42) | ((long) gen << 44);
+
+        int i = bucket(hash);
+        long deepData = table[i + 1];
+        boolean sameDeep = (table[i] ^ deepData) == hash;
+        if (sameDeep || deepData == 0 || depth >= depth(deepData) || generation(deepData) != gen) {
+            // deepest slot: empty, same position, not deeper than this result or left over from an older search
+            table[i] = hash ^ data;
+            table[i + 1] = data;
+        } else {
+            table[i + 2] = hash ^ data;
+            table[i + 3] = data;
+        }
+    }
+
+    private int bucket(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x7FFF);
+    }
+
+    /**
+     * Gets an entry's score, mate scores are turned back into distance from the root
+     *
+     * @param data              long, entry data from probe
+     * @param ply               int, distance from the root of the probing position
+     * @return                  int, score for the side to move
+     */
+    public static int score(long data, int ply) {
+        int score = (int) ((data >>> 15) & 0xFFFFF) - SCORE_OFFSET;
+        if (score > Search.MATE - Search.MAX_DEPTH) {
+            score -= ply;
+        } else if (score < -Search.MATE + Search.MAX_DEPTH) {
+            score += ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 35) & 127);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 42) & 3);
+    }
+
+    static int generation(long data) {
+        return (int) ((data >>> 44) & 255);
+    }
+}
@@ -64,28 +64,46 @@ public class Utils {
         }
     }
 
+    /**
+     * Reads a whole game file into memory, see GameReader to stream files instead
+     * A file may end early (no moves or no blank line before them), the missing parts read as empty
+     * 
+     * @param path              String, path of game file
+     * @return                  TestCase, the file's pieces, captures and moves
+     */
     public static TestCase parseTestCase(String path) throws Exception {
-        BufferedReader br = new BufferedReader(new FileReader(path));
-        String line = br.readLine().trim();
-        List<InitialPosition> initialPieces = new ArrayList<InitialPosition>();
-        while (!line.equals("")) {
-            String[] lineParts = line.split(" ");
-            initialPieces.add(new InitialPosition(lineParts[0], lineParts[1]));
-            line = br.readLine().trim();
-        }
-        line = br.readLine().trim();
-        List<String> upperCaptures = Arrays.asList(line.substring(1, line.length() - 1).split(" "));
-        line = br.readLine().trim();
-        List<String> lowerCaptures = Arrays.asList(line.substring(1, line.length() - 1).split(" "));
-        line = br.readLine().trim();
-        line = br.readLine().trim();
-        List<String> moves = new ArrayList<String>();
-        while (line != null) {
-            line = line.trim();
-            moves.add(line);
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line = readTrimmed(br);
+            List<InitialPosition> initialPieces = new ArrayList<InitialPosition>();
+            while (!line.equals("")) {
+                String[] lineParts = line.split(" ");
+                initialPieces.add(new InitialPosition(lineParts[0], lineParts[1]));
+                line = readTrimmed(br);
+            }
+            List<String> upperCaptures = parseCaptures(readTrimmed(br));
+            List<String> lowerCaptures = parseCaptures(readTrimmed(br));
+            readTrimmed(br);
             line = br.readLine();
+            List<String> moves = new ArrayList<String>();
+            while (line != null) {
+                line = line.trim();
+                moves.add(line);
+                line = br.readLine();
+            }
+
+            return new TestCase(initialPieces, upperCaptures, lowerCaptures, moves);
         }
+    }
+
+    private static List<String> parseCaptures(String line) {
+        if (line.length() < 2) {
+            return new ArrayList<String>();
+        }
+        return Arrays.asList(line.substring(1, line.length() - 1).split(" "));
+    }
 
-        return new TestCase(initialPieces, upperCaptures, lowerCaptures, moves);
+    private static String readTrimmed(BufferedReader br) throws IOException {
+        String line = br.readLine();
+        return line == null ? "" : line.trim();
     }
 }
@@ -0,0 +1,48 @@
+package src;
+
+import java.util.SplittableRandom;
+
+/*
+ * Description: random 64-bit keys for Zobrist hashing. A position's hash is the XOR of the key of every piece on
+ * its square, the key of every hand count and SIDE_KEY when upper is to move, so each change is one or two XORs.
+ */
+
+public class Zobrist {
+
+    // PIECE_KEYS[side][promoted][kind][square]
+    static final long[][][][] PIECE_KEYS = new long[2][2][Piece.NUM_KINDS][25];
+    // HAND_KEYS[side][kind][count], one key per count a hand can hold, count 0 is always 0 so empty hands hash to 0
+    static final long[][][] HAND_KEYS = new long[2][Piece.NUM_KINDS][Player.MAX_HAND_COUNT + 1];
+    static final long SIDE_KEY;
+
+    static {
+        // fixed seed so hashes are the same on every run and every machine
+        SplittableRandom random = new SplittableRandom(0x5A6F62726973744CL);
+        for (int side = 0; side < 2; side++) {
+            for (int promoted = 0; promoted < 2; promoted++) {
+                for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+                    for (int sq = 0; sq < 25; sq++) {
+                        PIECE_KEYS[side][promoted][kind][sq] = random.nextLong();
+                    }
+                }
+            }
+            for (int kind = 0; kind < Piece.NUM_KINDS; kind++) {
+                for (int count = 1; count <= Player.MAX_HAND_COUNT; count++) {
+                    HAND_KEYS[side][kind][count] = random.nextLong();
+                }
+            }
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long pieceKey(int side, boolean isPromoted, int kind, int square) {
+        return PIECE_KEYS[side][isPromoted ? 1 : 0][kind][square];
+    }
+
+    public static long handKey(int side, int kind, int count) {
+        return HAND_KEYS[side][kind][count];
+    }
+}
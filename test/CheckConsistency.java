@@ -0,0 +1,143 @@
+package test;
+
+import java.util.SplittableRandom;
+
+import src.Board;
+import src.Main;
+import src.Move;
+import src.MoveBuffer;
+import src.PlayGame;
+
+/*
+ * Description: plays random games two ways at once, refereed move by move like file mode and with makeMove, and
+ * checks the two agree on every position: the referee declares check exactly when the attack maps say the king
+ * is attacked, its moves out of check are exactly generateLegalMoves, the moves it accepts from each piece are
+ * exactly the generated ones, both ways reach the same position, and the position read back from its Sfen
+ * notation is in the same check state.
+ */
+
+public class CheckConsistency {
+
+    private static final int GAMES = 2000;
+    private static final int MAX_PLIES = 300;
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(Long.getLong("seed", 1));
+        MoveBuffer moves = new MoveBuffer();
+        int failed = 0;
+        long positions = 0;
+        long checks = 0;
+        for (int n = 0; n < GAMES && failed == 0; n++) {
+            PlayGame refereed = new PlayGame();
+            PlayGame made = new PlayGame();
+            StringBuilder line = new StringBuilder();
+            for (int ply = 0; ply < MAX_PLIES && refereed.getGameState() <= 0; ply++) {
+                positions++;
+                String error = compare(refereed, made, moves);
+                if (error != null) {
+                    failed++;
+                    System.out.println("FAIL game " + n + " after" + line + ": " + error);
+                    break;
+                }
+                if (made.getBoard().isInCheck(made.getCurrPlayer().getSide())) {
+                    checks++;
+                }
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                Move.appendTo(line.append(' '), move);
+                Main.refereeMove(refereed, move);
+                made.makeMove(move);
+            }
+        }
+        System.out.println(positions + " positions, " + checks + " in check");
+        System.out.println(failed == 0 ? "check consistency passed" : "check consistency failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares a refereed game with the same game played by makeMove, filling moves with the legal moves
+     *
+     * @param refereed          PlayGame, game played by Main.refereeMove
+     * @param made              PlayGame, game played by makeMove
+     * @param moves             MoveBuffer, cleared then filled with made's legal moves
+     * @return                  String, what differs or null if nothing does
+     */
+    private static String compare(PlayGame refereed, PlayGame made, MoveBuffer moves) {
+        String a = refereed.toSfen();
+        String b = made.toSfen();
+        // the move number is only counted by the referee
+        if (!a.substring(0, a.lastIndexOf(' ')).equals(b.substring(0, b.lastIndexOf(' ')))) {
+            return "positions differ, " + a + " vs " + b;
+        }
+        made.generateLegalMoves(moves);
+
+        boolean inCheck = made.getBoard().isInCheck(made.getCurrPlayer().getSide());
+        if ((refereed.getGameState() == -1) != inCheck) {
+            return "referee check " + (refereed.getGameState() == -1) + ", attack maps " + inCheck;
+        }
+        if (inCheck && !sameEvasions(refereed.getCurrPlayer().getAllMoves(), moves)) {
+            return "moves out of check " + refereed.getCurrPlayer().getAllMoves() + " vs " + moves;
+        }
+        PlayGame parsed = PlayGame.fromSfen(a);
+        if (parsed.getGameState() != refereed.getGameState()
+                || !sameMoves(parsed.getCurrPlayer().getAllMoves(), refereed.getCurrPlayer().getAllMoves())) {
+            return "read back from Sfen with game state " + parsed.getGameState() + " and moves out of check "
+                    + parsed.getCurrPlayer().getAllMoves();
+        }
+
+        // out of check, the referee accepts a move from a piece exactly when it is generated
+        if (!inCheck) {
+            for (int from = 0; from < 25; from++) {
+                for (int to = 0; to < 25; to++) {
+                    boolean legal = refereed.ifLegalMove(Board.rowOf(from), Board.colOf(from), Board.rowOf(to),
+                            Board.colOf(to), true);
+                    if (legal != moves.contains(Move.make(from, to, false))) {
+                        return "referee says " + Move.toString(Move.make(from, to, false)) + " is "
+                                + (legal ? "legal" : "illegal");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the referee's moves out of check are the generated moves plus the "promote" spelling of pawn moves
+     * into the promotion row, which the generator leaves out since the pawn promotes anyway
+     *
+     * @param allMoves          MoveBuffer, the referee's moves out of check
+     * @param moves             MoveBuffer, generated legal moves
+     * @return                  boolean, true = they agree
+     */
+    private static boolean sameEvasions(MoveBuffer allMoves, MoveBuffer moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (!allMoves.contains(moves.get(i))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < allMoves.size(); i++) {
+            int move = allMoves.get(i);
+            if (!moves.contains(move) && (!Move.isPromote(move)
+                    || !moves.contains(Move.make(Move.from(move), Move.to(move), false)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameMoves(MoveBuffer a, MoveBuffer b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!b.contains(a.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import src.Main;
+
+/*
+ * Description: regression games. Every <name>.in game file in the games directory (the "games" system property,
+ * test/games under the working directory by default) is played in file mode and what it prints is compared
+ * with <name>.out.
+ */
+
+public class Games {
+
+    private static final String DIR = System.getProperty("games", "test/games");
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(Paths.get(DIR))) {
+            files = list.filter(f -> f.toString().endsWith(".in")).sorted().collect(Collectors.toList());
+        }
+        int failed = 0;
+        for (Path in : files) {
+            Path out = Paths.get(in.toString().replaceFirst("\\.in$", ".out"));
+            String expected = new String(Files.readAllBytes(out), StandardCharsets.UTF_8);
+            String actual = play(in.toString());
+            if (!normalize(actual).equals(normalize(expected))) {
+                failed++;
+                System.out.println("FAIL " + in.getFileName() + System.lineSeparator() + "expected:"
+                        + System.lineSeparator() + expected + "actual:" + System.lineSeparator() + actual);
+            }
+        }
+        System.out.println((files.size() - failed) + " of " + files.size() + " games passed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a game file in file mode
+     *
+     * @param path              String, path of game file
+     * @return                  String, everything file mode printed
+     */
+    static String play(String path) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            Main.main(new String[]{"-f", path});
+        } finally {
+            System.setOut(stdout);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String normalize(String s) {
+        return s.replace("\r\n", "\n");
+    }
+}
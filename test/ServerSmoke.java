@@ -0,0 +1,134 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import src.GameClient;
+import src.GameServer;
+
+/*
+ * Description: smoke test of server mode on this machine. Starts a GameServer on a free port and drives it with
+ * GameClient: creates a game, follows it with watch while a legal and then an illegal move are played, checks
+ * the answers and the watched states, checks which positions it agrees to host, then plays a few hundred games
+ * from several clients at once.
+ */
+
+public class ServerSmoke {
+
+    private static final int CLIENTS = 8;
+    private static final int GAMES = 400;
+
+    private static int failed;
+
+    public static void main(String[] args) throws Exception {
+        // room for the concurrent games plus the two single games
+        GameServer server = new GameServer(GAMES + 2, 1);
+        int port = server.start(0, 4);
+        try {
+            GameClient client = new GameClient("http://localhost:" + port);
+            playWatchedGame(client);
+            createFromPositions(client);
+            playManyGames(client);
+            HttpResponse<String> missing = client.state("nosuchgame");
+            check(missing.statusCode() == 404, "unknown game answered " + missing.statusCode());
+        } finally {
+            server.stop();
+        }
+        System.out.println(failed == 0 ? "server smoke test passed" : failed + " server checks failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static void playWatchedGame(GameClient client) throws Exception {
+        HttpResponse<String> created = client.create(null);
+        check(created.statusCode() == 201, "create answered " + created.statusCode());
+        String id = GameClient.gameId(created);
+        check(created.body().contains("sfen NGRSD/4P/5/p4/dsrgn l - 1"), "new game is not the starting board");
+
+        // watch prints to System.out, capture it until the server closes the stream at the end of the game
+        ByteArrayOutputStream watched = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(watched, true, StandardCharsets.UTF_8));
+        Thread watcher = new Thread(() -> {
+            try {
+                client.watch(id);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        try {
+            watcher.start();
+            // the first state event means the stream is open, moves played from now on are all sent to it
+            for (int i = 0; i < 500 && !watched.toString(StandardCharsets.UTF_8).contains("lower>"); i++) {
+                Thread.sleep(10);
+            }
+
+            HttpResponse<String> moved = client.move(id, "move a2 a3");
+            check(GameClient.gameState(moved) == 0 && moved.body().contains("sfen NGRSD/4P/p4/5/dsrgn u - 2"),
+                    "legal move answered " + moved.body());
+            HttpResponse<String> state = client.state(id);
+            check(state.body().equals(moved.body()), "state differs from the move's answer");
+            HttpResponse<String> illegal = client.move(id, "move a5 a1");
+            check(GameClient.gameState(illegal) == 2 && illegal.body().contains("lower player wins.  Illegal move."),
+                    "illegal move answered " + illegal.body());
+            watcher.join(10_000);
+        } finally {
+            System.setOut(stdout);
+        }
+        check(!watcher.isAlive(), "event stream still open after the game ended");
+        String events = watched.toString(StandardCharsets.UTF_8);
+        check(events.contains("- 1") && events.contains("- 2") && events.contains("Illegal move."),
+                "watched " + events);
+    }
+
+    private static void createFromPositions(GameClient client) throws Exception {
+        // no king, side not to move in check, checkmated, past the move limit
+        for (String sfen : new String[]{"N4/5/5/5/2s1D l - 1", "N4/5/5/5/d1s1D u - 1", "D4/5/5/NN3/d4 l - 1",
+                "NGRSD/4P/5/p4/dsrgn l - 1026"}) {
+            HttpResponse<String> refused = client.create(sfen);
+            check(refused.statusCode() == 400, "hosted " + sfen + " with " + refused.statusCode());
+        }
+
+        // lower starts in check and must answer it
+        HttpResponse<String> created = client.create("N4/5/5/5/d1s1D l - 1");
+        check(created.statusCode() == 201 && GameClient.gameState(created) == -1
+                && created.body().contains("lower player is in check!"), "check position answered " + created.body());
+        HttpResponse<String> moved = client.move(GameClient.gameId(created), "move c1 c2");
+        check(GameClient.gameState(moved) == 2, "move ignoring check answered " + moved.body());
+    }
+
+    private static void playManyGames(GameClient client) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Boolean>> games = new ArrayList<>();
+        for (int n = 0; n < GAMES; n++) {
+            games.add(pool.submit(() -> {
+                String id = GameClient.gameId(client.create("NGRSD/4P/5/p4/dsrgn l - 1"));
+                HttpResponse<String> moved = client.move(id, "move a2 a3");
+                moved = client.move(id, "move e4 e3");
+                return GameClient.gameState(moved) == 0 && moved.body().contains("sfen NGRSD/5/p3P/5/dsrgn l - 3");
+            }));
+        }
+        int ok = 0;
+        try {
+            for (Future<Boolean> game : games) {
+                ok += game.get() ? 1 : 0;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        check(ok == GAMES, (GAMES - ok) + " of " + GAMES + " concurrent games went wrong");
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            failed++;
+            System.out.println("FAIL " + message);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import src.Move;
+import src.MoveBuffer;
+import src.ParallelSearch;
+import src.PlayGame;
+import src.Search;
+import src.TranspositionTable;
+
+/*
+ * Description: checks a TranspositionTable shared by several threads. Threads storing and probing the same small
+ * table at once must never read back an entry torn between two writes, and ParallelSearch with one shared table
+ * must return a legal move and find every forced mate a single threaded search finds, over the benchmark
+ * positions (the "positions" system property, bench/corpus/positions.sfen by default).
+ */
+
+public class SharedTableCheck {
+
+    private static final String POSITIONS = System.getProperty("positions", "bench/corpus/positions.sfen");
+    private static final int THREADS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int failed = checkTornEntries() + checkParallelSearch();
+        System.out.println(failed == 0 ? "shared table checks passed" : failed + " shared table checks failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Every thread stores entries whose data is a function of their hash into the same 1 MB table and probes
+     * hashes the other threads store, any hit has to carry its own hash's data
+     *
+     * @return                  int, number of failures
+     */
+    private static int checkTornEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicLong hits = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 2_000_000; i++) {
+                    // a few thousand hashes over a table of 32768 buckets keeps threads writing the same buckets
+                    long hash = mix(random.nextInt(100_000));
+                    if (random.nextBoolean()) {
+                        table.store(hash, moveOf(hash), scoreOf(hash), 1 + random.nextInt(20), TranspositionTable.EXACT,
+                                0);
+                    } else {
+                        long data = table.probe(hash);
+                        if (data != 0) {
+                            hits.incrementAndGet();
+                            if (TranspositionTable.move(data) != moveOf(hash)
+                                    || TranspositionTable.score(data, 0) != scoreOf(hash)) {
+                                torn.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("table: " + hits.get() + " hits, " + torn.get() + " wrong");
+        return torn.get() == 0 && hits.get() > 0 ? 0 : 1;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    private static int moveOf(long hash) {
+        return (int) (hash >>> 49) & 0x7FFF;
+    }
+
+    private static int scoreOf(long hash) {
+        return (int) (hash % 5000);
+    }
+
+    /**
+     * Searches every position on THREADS threads sharing one table, several times so the threads race differently
+     *
+     * @return                  int, number of failures
+     */
+    private static int checkParallelSearch() throws IOException {
+        List<String> positions = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(POSITIONS))) {
+            if (!line.isBlank()) {
+                positions.add(line.trim());
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        TranspositionTable table = new TranspositionTable(16);
+        int failed = 0;
+        int mates = 0;
+        try {
+            for (String sfen : positions) {
+                PlayGame game = PlayGame.fromSfen(sfen);
+                MoveBuffer legal = new MoveBuffer();
+                if (game.generateLegalMoves(legal) == 0) {
+                    continue;
+                }
+                Search.Result expected = new Search(game).search(4);
+                boolean mate = Math.abs(expected.score) >= Search.MATE - Search.MAX_DEPTH;
+                if (mate) {
+                    mates++;
+                }
+                for (int run = 0; run < 3; run++) {
+                    Search.Result result = ParallelSearch.search(game, 4, pool, table);
+                    if (result.move == Move.NONE || !legal.contains(result.move)
+                            || (mate && result.score != expected.score)) {
+                        failed++;
+                        System.out.println("FAIL " + sfen + ": expected " + expected + ", got " + result);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("search: " + positions.size() + " positions, " + mates + " with a forced mate");
+        return failed;
+    }
+}